@@ -0,0 +1,19 @@
+package com.springcloud.demo.codec;
+
+import java.io.IOException;
+
+/**
+ * 消息体编解码器
+ * 发送端按 contentType 写入消息头, 接收端按消息头查找对应编解码器还原对象
+ */
+public interface MessageCodec {
+
+    /**
+     * 编码格式, 写入消息头 contentType
+     */
+    String contentType();
+
+    byte[] encode(Object payload) throws IOException;
+
+    <T> T decode(byte[] data, Class<T> type) throws IOException;
+}
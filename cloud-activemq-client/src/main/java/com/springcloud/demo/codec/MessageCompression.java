@@ -0,0 +1,65 @@
+package com.springcloud.demo.codec;
+
+import net.jpountz.lz4.LZ4Factory;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * 消息体压缩方式, 名称写入消息头 contentEncoding
+ */
+public enum MessageCompression {
+
+    NONE {
+        @Override
+        public byte[] compress(byte[] data) {
+            return data;
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int originalLength) {
+            return data;
+        }
+    },
+
+    LZ4 {
+        @Override
+        public byte[] compress(byte[] data) {
+            return LZ4_FACTORY.fastCompressor().compress(data);
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int originalLength) {
+            return LZ4_FACTORY.fastDecompressor().decompress(data, originalLength);
+        }
+    },
+
+    SNAPPY {
+        @Override
+        public byte[] compress(byte[] data) throws IOException {
+            return Snappy.compress(data);
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int originalLength) throws IOException {
+            return Snappy.uncompress(data);
+        }
+    };
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+    public abstract byte[] compress(byte[] data) throws IOException;
+
+    /**
+     * @param originalLength 压缩前长度, LZ4 解压需要
+     */
+    public abstract byte[] decompress(byte[] data, int originalLength) throws IOException;
+
+    public static MessageCompression of(String name) {
+        if (name == null || name.isEmpty()) {
+            return NONE;
+        }
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
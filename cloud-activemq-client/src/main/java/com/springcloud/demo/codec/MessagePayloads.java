@@ -0,0 +1,121 @@
+package com.springcloud.demo.codec;
+
+import com.springcloud.demo.config.AMQConfigBean;
+import org.springframework.stereotype.Component;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对象消息体与 BytesMessage 之间的转换
+ *
+ * 消息头:
+ *   contentType      编解码器, 见 {@link MessageCodec#contentType()}
+ *   contentEncoding  压缩方式, 见 {@link MessageCompression}
+ *   originalLength   压缩前字节数
+ */
+@Component
+public class MessagePayloads {
+
+    public static final String CONTENT_TYPE = "contentType";
+    public static final String CONTENT_ENCODING = "contentEncoding";
+    public static final String ORIGINAL_LENGTH = "originalLength";
+
+    private static final Map<String, MessageCodec> CODECS = new ConcurrentHashMap<>();
+
+    private static volatile MessageCodec defaultCodec;
+    private static volatile MessageCompression compression = MessageCompression.NONE;
+    private static volatile int compressThreshold = 1024;
+
+    static {
+        register(new SmileMessageCodec());
+        defaultCodec = CODECS.get(SmileMessageCodec.CONTENT_TYPE);
+    }
+
+    /**
+     * 容器创建时按 activemq 配置设置压缩方式
+     */
+    public MessagePayloads(AMQConfigBean config) {
+        MessagePayloads.compression = MessageCompression.of(config.getCompression());
+        MessagePayloads.compressThreshold = config.getCompressThreshold();
+    }
+
+    /**
+     * 注册编解码器, 同一 contentType 后注册的覆盖先注册的
+     */
+    public static void register(MessageCodec codec) {
+        CODECS.put(codec.contentType(), codec);
+    }
+
+    /**
+     * 设置发送端默认使用的编解码器
+     */
+    public static void setDefaultCodec(MessageCodec codec) {
+        register(codec);
+        defaultCodec = codec;
+    }
+
+    /**
+     * 编码对象为 BytesMessage, 超过阈值时按配置压缩
+     */
+    public static BytesMessage toMessage(Session session, Object payload) throws JMSException {
+        MessageCodec codec = defaultCodec;
+        byte[] data;
+        try {
+            data = codec.encode(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("encode message payload error!", e);
+        }
+
+        MessageCompression used = data.length >= compressThreshold ? compression : MessageCompression.NONE;
+        byte[] body;
+        try {
+            body = used.compress(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("compress message payload error!", e);
+        }
+
+        BytesMessage message = session.createBytesMessage();
+        message.setStringProperty(CONTENT_TYPE, codec.contentType());
+        message.setStringProperty(CONTENT_ENCODING, used.name());
+        message.setIntProperty(ORIGINAL_LENGTH, data.length);
+        message.writeBytes(body);
+        return message;
+    }
+
+    /**
+     * 按消息头还原对象, TextMessage 直接返回文本
+     */
+    public static <T> T fromMessage(Message message, Class<T> type) throws JMSException {
+        if (message instanceof TextMessage) {
+            return type.cast(((TextMessage) message).getText());
+        }
+        if (!(message instanceof BytesMessage)) {
+            throw new IllegalArgumentException("unsupported message type: " + message.getClass().getName());
+        }
+
+        BytesMessage bytesMessage = (BytesMessage) message;
+        String contentType = bytesMessage.getStringProperty(CONTENT_TYPE);
+        MessageCodec codec = contentType == null ? defaultCodec : CODECS.get(contentType);
+        if (codec == null) {
+            throw new IllegalArgumentException("no codec registered for content type: " + contentType);
+        }
+
+        byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(body);
+        MessageCompression used = MessageCompression.of(bytesMessage.getStringProperty(CONTENT_ENCODING));
+        int originalLength = bytesMessage.propertyExists(ORIGINAL_LENGTH)
+                ? bytesMessage.getIntProperty(ORIGINAL_LENGTH) : body.length;
+        try {
+            return codec.decode(used.decompress(body, originalLength), type);
+        } catch (IOException e) {
+            throw new IllegalStateException("decode message payload error!", e);
+        }
+    }
+}
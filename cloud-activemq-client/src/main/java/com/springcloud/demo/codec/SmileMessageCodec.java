@@ -0,0 +1,37 @@
+package com.springcloud.demo.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+
+/**
+ * Smile(二进制 JSON) 编解码器, 字段名与短字符串会做回引, 体积与解析开销都小于文本 JSON
+ */
+public class SmileMessageCodec implements MessageCodec {
+
+    public static final String CONTENT_TYPE = "application/x-jackson-smile";
+
+    private final ObjectMapper mapper;
+
+    public SmileMessageCodec() {
+        this.mapper = new ObjectMapper(new SmileFactory());
+        this.mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) throws IOException {
+        return mapper.readValue(data, type);
+    }
+}
@@ -0,0 +1,390 @@
+package com.springcloud.demo.config;
+
+import org.apache.activemq.command.ActiveMQDestination;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ActiveMQ 客户端配置, 对应 application.yml 中的 activemq 配置块
+ *
+ * 不使用 spring.activemq 前缀: 那是 Boot 自带 ActiveMQProperties 的配置, 其中 pool.* 等键的含义与这里不同
+ */
+@Component
+@ConfigurationProperties(prefix = "activemq")
+public class AMQConfigBean {
+    private String brokerUrl;
+    private String user;
+    private String password;
+    private int sessionCacheSize = 20;
+
+    /**
+     * 队列预取条数
+     */
+    private int queuePrefetch = 1000;
+
+    /**
+     * 主题预取条数
+     */
+    private int topicPrefetch = Short.MAX_VALUE;
+
+    /**
+     * 是否批量确认消息
+     */
+    private boolean optimizeAcknowledge = false;
+
+    /**
+     * 是否压缩消息体
+     */
+    private boolean useCompression = false;
+
+    /**
+     * 对象消息体压缩方式: none / lz4 / snappy
+     */
+    private String compression = "none";
+
+    /**
+     * 对象消息体超过该字节数才压缩
+     */
+    private int compressThreshold = 1024;
+
+    /**
+     * 连接池配置
+     */
+    private final Pool pool = new Pool();
+
+    /**
+     * 重投等待期间是否继续投递后续消息, 避免一条消息阻塞整个消费者;
+     * 开启后后续消息会越过等待重投的消息, 按 JMSXGroupID 保序的目的地(如 user_event)必须关闭
+     */
+    private boolean nonBlockingRedelivery = false;
+
+    /**
+     * 默认重投策略
+     */
+    private final Redelivery redelivery = new Redelivery();
+
+    /**
+     * 按目的地覆盖的重投策略, 键为目的地名称(队列), 主题以 topic:// 开头
+     */
+    private final Map<String, Redelivery> destinationRedelivery = new HashMap<>();
+
+    /**
+     * 重投耗尽的消息转入的死信队列前缀, 死信队列为 前缀 + 原目的地名称
+     */
+    private String dlqPrefix = "DLQ.";
+
+    /**
+     * 无法解析等毒消息直接隔离到的停放队列前缀
+     */
+    private String parkingPrefix = "PARKING.";
+
+    /**
+     * 幂等消费去重窗口(秒)
+     */
+    private long dedupWindowSeconds = 600;
+
+    /**
+     * 幂等消费认领(处理中标记)的存活时间(秒), 须小于重投退避的总时长
+     */
+    private long dedupProcessingSeconds = 10;
+
+    /**
+     * 幂等消费进程内 LRU 容量(每个监听器)
+     */
+    private int dedupLruSize = 10000;
+
+    public AMQConfigBean() {
+    }
+
+    public AMQConfigBean(String brokerUrl, String user, String password, int sessionCacheSize) {
+        this.brokerUrl = brokerUrl;
+        this.user = user;
+        this.password = password;
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    public String getBrokerUrl() {
+        return this.brokerUrl;
+    }
+
+    public void setBrokerUrl(String brokerUrl) {
+        this.brokerUrl = brokerUrl;
+    }
+
+    public String getUser() {
+        return this.user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public String getPassword() {
+        return this.password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getSessionCacheSize() {
+        return this.sessionCacheSize;
+    }
+
+    public void setSessionCacheSize(int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    public int getQueuePrefetch() {
+        return this.queuePrefetch;
+    }
+
+    public void setQueuePrefetch(int queuePrefetch) {
+        this.queuePrefetch = queuePrefetch;
+    }
+
+    public int getTopicPrefetch() {
+        return this.topicPrefetch;
+    }
+
+    public void setTopicPrefetch(int topicPrefetch) {
+        this.topicPrefetch = topicPrefetch;
+    }
+
+    public boolean isOptimizeAcknowledge() {
+        return this.optimizeAcknowledge;
+    }
+
+    public void setOptimizeAcknowledge(boolean optimizeAcknowledge) {
+        this.optimizeAcknowledge = optimizeAcknowledge;
+    }
+
+    public boolean isUseCompression() {
+        return this.useCompression;
+    }
+
+    public void setUseCompression(boolean useCompression) {
+        this.useCompression = useCompression;
+    }
+
+    public String getCompression() {
+        return this.compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    public int getCompressThreshold() {
+        return this.compressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public Pool getPool() {
+        return this.pool;
+    }
+
+    public boolean isNonBlockingRedelivery() {
+        return this.nonBlockingRedelivery;
+    }
+
+    public void setNonBlockingRedelivery(boolean nonBlockingRedelivery) {
+        this.nonBlockingRedelivery = nonBlockingRedelivery;
+    }
+
+    public Redelivery getRedelivery() {
+        return this.redelivery;
+    }
+
+    public Map<String, Redelivery> getDestinationRedelivery() {
+        return this.destinationRedelivery;
+    }
+
+    /**
+     * 目的地对应的重投策略, 未单独配置时取默认策略
+     */
+    public Redelivery redeliveryOf(ActiveMQDestination destination) {
+        for (Map.Entry<String, Redelivery> entry : this.destinationRedelivery.entrySet()) {
+            if (destinationOf(entry.getKey()).equals(destination)) {
+                return entry.getValue();
+            }
+        }
+        return this.redelivery;
+    }
+
+    /**
+     * 解析 destination-redelivery 的键: 无前缀或 queue:// 为队列, topic:// 为主题
+     */
+    public static ActiveMQDestination destinationOf(String key) {
+        return ActiveMQDestination.createDestination(key, ActiveMQDestination.QUEUE_TYPE);
+    }
+
+    public String getDlqPrefix() {
+        return this.dlqPrefix;
+    }
+
+    public void setDlqPrefix(String dlqPrefix) {
+        this.dlqPrefix = dlqPrefix;
+    }
+
+    public String getParkingPrefix() {
+        return this.parkingPrefix;
+    }
+
+    public void setParkingPrefix(String parkingPrefix) {
+        this.parkingPrefix = parkingPrefix;
+    }
+
+    public long getDedupWindowSeconds() {
+        return this.dedupWindowSeconds;
+    }
+
+    public void setDedupWindowSeconds(long dedupWindowSeconds) {
+        this.dedupWindowSeconds = dedupWindowSeconds;
+    }
+
+    public long getDedupProcessingSeconds() {
+        return this.dedupProcessingSeconds;
+    }
+
+    public void setDedupProcessingSeconds(long dedupProcessingSeconds) {
+        this.dedupProcessingSeconds = dedupProcessingSeconds;
+    }
+
+    public int getDedupLruSize() {
+        return this.dedupLruSize;
+    }
+
+    public void setDedupLruSize(int dedupLruSize) {
+        this.dedupLruSize = dedupLruSize;
+    }
+
+    public static class Redelivery {
+
+        /**
+         * 最大重投次数, 超过后转入死信队列
+         */
+        private int maximumRedeliveries = 5;
+
+        /**
+         * 首次重投延迟(毫秒)
+         */
+        private long initialRedeliveryDelay = 1000;
+
+        /**
+         * 是否指数退避
+         */
+        private boolean useExponentialBackOff = true;
+
+        /**
+         * 退避倍数
+         */
+        private double backOffMultiplier = 2;
+
+        /**
+         * 最大重投延迟(毫秒)
+         */
+        private long maximumRedeliveryDelay = 60000;
+
+        public int getMaximumRedeliveries() {
+            return this.maximumRedeliveries;
+        }
+
+        public void setMaximumRedeliveries(int maximumRedeliveries) {
+            this.maximumRedeliveries = maximumRedeliveries;
+        }
+
+        public long getInitialRedeliveryDelay() {
+            return this.initialRedeliveryDelay;
+        }
+
+        public void setInitialRedeliveryDelay(long initialRedeliveryDelay) {
+            this.initialRedeliveryDelay = initialRedeliveryDelay;
+        }
+
+        public boolean isUseExponentialBackOff() {
+            return this.useExponentialBackOff;
+        }
+
+        public void setUseExponentialBackOff(boolean useExponentialBackOff) {
+            this.useExponentialBackOff = useExponentialBackOff;
+        }
+
+        public double getBackOffMultiplier() {
+            return this.backOffMultiplier;
+        }
+
+        public void setBackOffMultiplier(double backOffMultiplier) {
+            this.backOffMultiplier = backOffMultiplier;
+        }
+
+        public long getMaximumRedeliveryDelay() {
+            return this.maximumRedeliveryDelay;
+        }
+
+        public void setMaximumRedeliveryDelay(long maximumRedeliveryDelay) {
+            this.maximumRedeliveryDelay = maximumRedeliveryDelay;
+        }
+    }
+
+    public static class Pool {
+
+        /**
+         * 物理连接数
+         */
+        private int maxConnections = 4;
+
+        /**
+         * 连接空闲超时时间(毫秒)
+         */
+        private int idleTimeout = 30000;
+
+        /**
+         * session 池满时是否阻塞等待, false 则直接抛出异常
+         */
+        private boolean blockIfFull = true;
+
+        /**
+         * 是否在每个 session 上复用同一个匿名生产者(对所有目的地生效)
+         */
+        private boolean useAnonymousProducers = true;
+
+        public int getMaxConnections() {
+            return this.maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getIdleTimeout() {
+            return this.idleTimeout;
+        }
+
+        public void setIdleTimeout(int idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public boolean isBlockIfFull() {
+            return this.blockIfFull;
+        }
+
+        public void setBlockIfFull(boolean blockIfFull) {
+            this.blockIfFull = blockIfFull;
+        }
+
+        public boolean isUseAnonymousProducers() {
+            return this.useAnonymousProducers;
+        }
+
+        public void setUseAnonymousProducers(boolean useAnonymousProducers) {
+            this.useAnonymousProducers = useAnonymousProducers;
+        }
+    }
+}
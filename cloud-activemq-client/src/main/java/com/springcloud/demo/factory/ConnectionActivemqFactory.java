@@ -0,0 +1,130 @@
+package com.springcloud.demo.factory;
+
+import com.springcloud.demo.config.AMQConfigBean;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQPrefetchPolicy;
+import org.apache.activemq.RedeliveryPolicy;
+import org.apache.activemq.broker.region.policy.RedeliveryPolicyMap;
+import org.messaginghub.pooled.jms.JmsPoolConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.jms.ConnectionFactory;
+import java.util.Map;
+
+/**
+ * ActiveMQ 连接工厂
+ * 配置取自 application.yml 的 activemq(AMQConfigBean, 由容器注入), 底层为多物理连接的连接池, 生产者和消费者不再争用同一个 TCP 连接;
+ * JMSPublisher、JMSListener 等静态工具通过 getInstance() 使用容器中的这个实例
+ */
+@Component
+public class ConnectionActivemqFactory implements DisposableBean {
+
+    private static volatile ConnectionActivemqFactory current;
+
+    private final AMQConfigBean config;
+    private ConnectionFactory factory;
+
+    public ConnectionActivemqFactory(AMQConfigBean config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() {
+        current = this;
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (factory instanceof JmsPoolConnectionFactory) {
+                ((JmsPoolConnectionFactory) factory).stop();
+            }
+        }
+        if (current == this) {
+            current = null;
+        }
+    }
+
+    public static ConnectionFactory getInstance() {
+        return current().connectionFactory();
+    }
+
+    /**
+     * 连接池, 首次使用时创建
+     */
+    public synchronized ConnectionFactory connectionFactory() {
+        if (factory == null) {
+            factory = buildConnectionFactory(loadConfigure());
+        }
+        return factory;
+    }
+
+    private ConnectionFactory buildConnectionFactory(AMQConfigBean bean) {
+        ActiveMQConnectionFactory targetFactory = new ActiveMQConnectionFactory(bean.getUser(), bean.getPassword(), bean.getBrokerUrl());
+        ActiveMQPrefetchPolicy prefetchPolicy = new ActiveMQPrefetchPolicy();
+        prefetchPolicy.setQueuePrefetch(bean.getQueuePrefetch());
+        prefetchPolicy.setTopicPrefetch(bean.getTopicPrefetch());
+        targetFactory.setPrefetchPolicy(prefetchPolicy);
+        targetFactory.setOptimizeAcknowledge(bean.isOptimizeAcknowledge());
+        targetFactory.setUseCompression(bean.isUseCompression());
+        targetFactory.setNonBlockingRedelivery(bean.isNonBlockingRedelivery());
+        targetFactory.setRedeliveryPolicyMap(buildRedeliveryPolicyMap(bean));
+
+        AMQConfigBean.Pool pool = bean.getPool();
+        JmsPoolConnectionFactory poolFactory = new JmsPoolConnectionFactory();
+        poolFactory.setConnectionFactory(targetFactory);
+        poolFactory.setMaxConnections(pool.getMaxConnections());
+        poolFactory.setMaxSessionsPerConnection(bean.getSessionCacheSize());
+        poolFactory.setConnectionIdleTimeout(pool.getIdleTimeout());
+        poolFactory.setBlockIfSessionPoolIsFull(pool.isBlockIfFull());
+        poolFactory.setUseAnonymousProducers(pool.isUseAnonymousProducers());
+
+        return poolFactory;
+    }
+
+    private RedeliveryPolicyMap buildRedeliveryPolicyMap(AMQConfigBean bean) {
+        RedeliveryPolicyMap policyMap = new RedeliveryPolicyMap();
+        policyMap.setDefaultEntry(buildRedeliveryPolicy(bean.getRedelivery()));
+        for (Map.Entry<String, AMQConfigBean.Redelivery> entry : bean.getDestinationRedelivery().entrySet()) {
+            RedeliveryPolicy policy = buildRedeliveryPolicy(entry.getValue());
+            policy.setDestination(AMQConfigBean.destinationOf(entry.getKey()));
+            policyMap.put(policy.getDestination(), policy);
+        }
+        return policyMap;
+    }
+
+    private RedeliveryPolicy buildRedeliveryPolicy(AMQConfigBean.Redelivery redelivery) {
+        RedeliveryPolicy policy = new RedeliveryPolicy();
+        policy.setMaximumRedeliveries(redelivery.getMaximumRedeliveries());
+        policy.setInitialRedeliveryDelay(redelivery.getInitialRedeliveryDelay());
+        policy.setRedeliveryDelay(redelivery.getInitialRedeliveryDelay());
+        policy.setUseExponentialBackOff(redelivery.isUseExponentialBackOff());
+        policy.setBackOffMultiplier(redelivery.getBackOffMultiplier());
+        policy.setMaximumRedeliveryDelay(redelivery.getMaximumRedeliveryDelay());
+        return policy;
+    }
+
+    /**
+     * 当前生效的 ActiveMQ 配置
+     */
+    public static AMQConfigBean getConfig() {
+        return current().loadConfigure();
+    }
+
+    private static ConnectionActivemqFactory current() {
+        ConnectionActivemqFactory instance = current;
+        if (instance == null) {
+            throw new IllegalStateException("activemq client is not initialized");
+        }
+        return instance;
+    }
+
+    private AMQConfigBean loadConfigure() {
+        if (config.getBrokerUrl() != null) {
+            return config;
+        }
+        throw new IllegalStateException("load amq config error!");
+    }
+}
@@ -0,0 +1,80 @@
+package com.springcloud.demo.listener;
+
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQMessage;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+/**
+ * 死信处理监听器, 包装业务 MessageListener, 需运行在事务 session 中
+ *
+ * 业务异常: 抛出使事务回滚, 由客户端按重投策略退避后重投;
+ *          最后一次重投仍失败时转入死信队列并提交, 不再重投。
+ * 毒消息({@link PoisonMessageException}): 直接转入停放队列并提交。
+ * 转入时附带原目的地、失败原因与失败时间, 见 {@link JMSDeadLetters#replay(String, int)}。
+ */
+public class DeadLetterMessageListener implements SessionAwareMessageListener<Message> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterMessageListener.class);
+
+    public static final String ORIGINAL_DESTINATION = "dlqOriginalDestination";
+    public static final String FAILURE_CAUSE = "dlqFailureCause";
+    public static final String FAILED_TIME = "dlqFailedTime";
+
+    private final ActiveMQDestination destination;
+    private final MessageListener delegate;
+    private final int maximumRedeliveries;
+    private final String dlqName;
+    private final String parkingName;
+
+    public DeadLetterMessageListener(ActiveMQDestination destination, MessageListener delegate, int maximumRedeliveries,
+                                     String dlqPrefix, String parkingPrefix) {
+        this.destination = destination;
+        this.delegate = delegate;
+        this.maximumRedeliveries = maximumRedeliveries;
+        this.dlqName = dlqPrefix + destination.getPhysicalName();
+        this.parkingName = parkingPrefix + destination.getPhysicalName();
+    }
+
+    @Override
+    public void onMessage(Message message, Session session) throws JMSException {
+        try {
+            delegate.onMessage(message);
+        } catch (PoisonMessageException e) {
+            LOGGER.error("poison message " + message.getJMSMessageID() + " parked to " + parkingName, e);
+            forward(message, session, parkingName, e);
+        } catch (RuntimeException e) {
+            //JMSXDeliveryCount 从1开始, 首次投递 + maximumRedeliveries 次重投
+            int deliveryCount = message.propertyExists("JMSXDeliveryCount") ? message.getIntProperty("JMSXDeliveryCount") : 1;
+            if (deliveryCount <= maximumRedeliveries) {
+                LOGGER.warn("message " + message.getJMSMessageID() + " on " + destination.getPhysicalName()
+                        + " failed, delivery " + deliveryCount + ", will be redelivered", e);
+                throw e;
+            }
+            LOGGER.error("message " + message.getJMSMessageID() + " exhausted redeliveries, moved to " + dlqName, e);
+            forward(message, session, dlqName, e);
+        }
+    }
+
+    private void forward(Message message, Session session, String queueName, Exception cause) throws JMSException {
+        ActiveMQMessage copy = (ActiveMQMessage) ((ActiveMQMessage) message).copy();
+        copy.setReadOnlyProperties(false);
+        copy.setStringProperty(ORIGINAL_DESTINATION, destination.getQualifiedName());
+        copy.setStringProperty(FAILURE_CAUSE, String.valueOf(cause));
+        copy.setLongProperty(FAILED_TIME, System.currentTimeMillis());
+        MessageProducer producer = session.createProducer(new ActiveMQQueue(queueName));
+        try {
+            producer.send(copy);
+        } finally {
+            producer.close();
+        }
+    }
+}
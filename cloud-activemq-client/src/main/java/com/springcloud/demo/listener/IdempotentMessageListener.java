@@ -0,0 +1,118 @@
+package com.springcloud.demo.listener;
+
+import com.springcloud.demo.util.RedisDedupUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 幂等消费监听器, 包装业务 MessageListener, 重复投递的消息直接跳过
+ *
+ * 先查进程内 LRU(最近处理成功的消息id), 命中即为重复, 无需访问 redis;
+ * 未命中时通过 RedisDedupUtil 认领消息, 多个实例共享去重窗口:
+ *   认领成功    处理, 成功后才标记为已处理; 失败(含 Error)时撤销认领后抛出, 重投的消息仍会被处理
+ *   已处理      重复, 跳过
+ *   处理中      其他消费者正在处理, 抛出使本次投递回滚, 稍后重投时再判断
+ * 认领在 processingSeconds 后过期: 认领后进程被杀或会话断开, 重投的消息在过期后仍会被处理, 不会被误判为重复丢失;
+ * 因此业务处理需幂等(至少一次), processingSeconds 须小于重投退避的总时长。
+ * redis 不可用时按非重复处理(至少一次)。
+ */
+public class IdempotentMessageListener implements MessageListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotentMessageListener.class);
+
+    private final String namespace;
+    private final MessageListener delegate;
+    private final long windowSeconds;
+    private final long processingSeconds;
+    private final String token = UUID.randomUUID().toString();
+    private final Map<String, Long> recent;
+
+    public IdempotentMessageListener(String namespace, MessageListener delegate, long windowSeconds,
+                                     long processingSeconds, int lruSize) {
+        this.namespace = namespace;
+        this.delegate = delegate;
+        this.windowSeconds = windowSeconds;
+        this.processingSeconds = processingSeconds;
+        this.recent = new LinkedHashMap<String, Long>(lruSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > lruSize;
+            }
+        };
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        String id = messageId(message);
+        long now = System.currentTimeMillis();
+        if (isRecent(id, now)) {
+            LOGGER.debug("duplicate message " + id + " skipped");
+            return;
+        }
+
+        RedisDedupUtil.State state;
+        try {
+            state = RedisDedupUtil.claim(namespace, id, token, processingSeconds);
+        } catch (RuntimeException e) {
+            LOGGER.warn("dedup check of message " + id + " error, process it anyway", e);
+            delegate.onMessage(message);
+            return;
+        }
+        if (state == RedisDedupUtil.State.DONE) {
+            LOGGER.debug("duplicate message " + id + " skipped");
+            remember(id, now);
+            return;
+        }
+        if (state == RedisDedupUtil.State.PROCESSING) {
+            throw new IllegalStateException("message " + id + " is being processed by another consumer");
+        }
+
+        try {
+            delegate.onMessage(message);
+        } catch (RuntimeException | Error e) {
+            try {
+                RedisDedupUtil.release(namespace, id, token);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("release claim of message " + id + " error", ex);
+            }
+            throw e;
+        }
+        try {
+            RedisDedupUtil.complete(namespace, id, windowSeconds);
+        } catch (RuntimeException e) {
+            //认领过期后重投的消息会再处理一次(至少一次)
+            LOGGER.warn("mark message " + id + " done error", e);
+        }
+        remember(id, now);
+    }
+    private String messageId(Message message) {
+        try {
+            return message.getJMSMessageID();
+        } catch (JMSException e) {
+            throw new IllegalStateException("read message id error!", e);
+        }
+    }
+
+    private synchronized boolean isRecent(String id, long now) {
+        Long expireAt = recent.get(id);
+        if (expireAt == null) {
+            return false;
+        }
+        if (expireAt < now) {
+            recent.remove(id);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void remember(String id, long now) {
+        recent.put(id, now + windowSeconds * 1000);
+    }
+}
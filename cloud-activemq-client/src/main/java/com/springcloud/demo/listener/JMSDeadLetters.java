@@ -0,0 +1,90 @@
+package com.springcloud.demo.listener;
+
+import com.springcloud.demo.factory.ConnectionActivemqFactory;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQQueue;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.QueueBrowser;
+import javax.jms.Session;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 死信/停放队列运维工具: 查看与重放
+ */
+public class JMSDeadLetters {
+
+    private static final long RECEIVE_TIMEOUT = 1000;
+
+    /**
+     * 查看死信/停放队列中的消息(不消费)
+     * @param queueName 死信或停放队列名称, 如 DLQ.queue/queue_b
+     * @param max 最多返回条数
+     */
+    public static List<Map<String, Object>> browse(String queueName, int max) throws JMSException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        Connection connection = ConnectionActivemqFactory.getInstance().createConnection();
+        try {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            QueueBrowser browser = session.createBrowser(new ActiveMQQueue(queueName));
+            Enumeration<?> messages = browser.getEnumeration();
+            while (messages.hasMoreElements() && result.size() < max) {
+                Message message = (Message) messages.nextElement();
+                Map<String, Object> item = new HashMap<>(8);
+                item.put("messageId", message.getJMSMessageID());
+                item.put("originalDestination", message.getStringProperty(DeadLetterMessageListener.ORIGINAL_DESTINATION));
+                item.put("failureCause", message.getStringProperty(DeadLetterMessageListener.FAILURE_CAUSE));
+                item.put("failedTime", message.getLongProperty(DeadLetterMessageListener.FAILED_TIME));
+                result.add(item);
+            }
+            browser.close();
+        } finally {
+            connection.close();
+        }
+        return result;
+    }
+
+    /**
+     * 将死信/停放队列中的消息重新投递回原目的地, 每条消息的取出与重投在同一事务中
+     * @param queueName 死信或停放队列名称, 如 DLQ.queue/queue_b
+     * @param max 最多重放条数
+     * @return 实际重放条数
+     */
+    public static int replay(String queueName, int max) throws JMSException {
+        int count = 0;
+        Connection connection = ConnectionActivemqFactory.getInstance().createConnection();
+        try {
+            connection.start();
+            Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+            MessageConsumer consumer = session.createConsumer(new ActiveMQQueue(queueName));
+            MessageProducer producer = session.createProducer(null);
+            while (count < max) {
+                Message message = consumer.receive(RECEIVE_TIMEOUT);
+                if (message == null) {
+                    break;
+                }
+                String original = message.getStringProperty(DeadLetterMessageListener.ORIGINAL_DESTINATION);
+                if (original == null) {
+                    session.rollback();
+                    throw new IllegalStateException("message " + message.getJMSMessageID() + " has no original destination");
+                }
+                producer.send(ActiveMQDestination.createDestination(original, ActiveMQDestination.QUEUE_TYPE), message);
+                session.commit();
+                count++;
+            }
+            consumer.close();
+            producer.close();
+        } finally {
+            connection.close();
+        }
+        return count;
+    }
+}
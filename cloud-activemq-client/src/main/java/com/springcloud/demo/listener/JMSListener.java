@@ -0,0 +1,139 @@
+package com.springcloud.demo.listener;
+
+import com.springcloud.demo.codec.MessagePayloads;
+import com.springcloud.demo.config.AMQConfigBean;
+import com.springcloud.demo.factory.ConnectionActivemqFactory;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTopic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.listener.SimpleMessageListenerContainer;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageListener;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JMS监听器  创建消费者
+ */
+public class JMSListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JMSListener.class);
+    private static final Map<String, Destination> MQDESTS = new ConcurrentHashMap();
+
+    /**
+ 　　* 开启一个 点对点的 消息队列监听 的消费者
+ 　　* @param queueName 队列名称
+ 　　* @param subName 订阅者的名字
+ 　　* @param listener 监听
+ 　　*/
+
+     public static synchronized void startJmsQueueListener(String queueName, MessageListener listener){
+        startJmsQueueListener(queueName, null, listener);
+    }
+
+    public static synchronized void startJmsQueueListener(String queueName, String subName, MessageListener listener) {
+        Destination dst = (Destination)MQDESTS.get("QUEUE_" + queueName);
+        if (dst == null) {
+            ActiveMQQueue mq = new ActiveMQQueue(queueName);
+            startJmsListener(mq, subName, listener);
+            MQDESTS.put("QUEUE_" + queueName, mq);
+        } else {
+            LOGGER.warn(queueName + " already started");
+        }
+    }
+
+    /**
+ 　　* 开启 一对多 主题的 消息监听的消费者
+ 　　*
+ 　　* @param topicName 主题消息名称
+ 　　* @param subName 订阅者的名字
+ 　　* @param listener 监听
+ 　　*/
+    public static synchronized void startJmsTopicListener(String topicName, MessageListener listener){
+        startJmsTopicListener(topicName, null, listener);
+    }
+
+    public static synchronized void startJmsTopicListener(String topicName, String subName, MessageListener listener) {
+        ActiveMQTopic mq = new ActiveMQTopic(topicName);
+        startJmsListener(mq, subName, listener);
+        MQDESTS.put("QUEUE_" + topicName, mq);
+    }
+
+    /**
+ 　　* 开启幂等的队列监听, 重复投递的消息(按 JMSMessageID)直接跳过, 见 IdempotentMessageListener
+ 　　*
+ 　　* @param queueName 队列名称
+ 　　* @param listener 监听
+ 　　*/
+    public static synchronized void startIdempotentJmsQueueListener(String queueName, MessageListener listener) {
+        startJmsQueueListener(queueName, null, idempotent(queueName, listener));
+    }
+
+    public static synchronized void startIdempotentJmsTopicListener(String topicName, String subName, MessageListener listener) {
+        startJmsTopicListener(topicName, subName, idempotent(topicName + ":" + subName, listener));
+    }
+
+    private static MessageListener idempotent(String namespace, MessageListener listener) {
+        AMQConfigBean config = ConnectionActivemqFactory.getConfig();
+        return new IdempotentMessageListener(namespace, listener, config.getDedupWindowSeconds(),
+                config.getDedupProcessingSeconds(), config.getDedupLruSize());
+    }
+
+    /**
+ 　　* 开启对象消息的队列/主题监听, 消息体按消息头自动解码为 payloadType
+ 　　*
+ 　　* @param payloadType 消息体类型
+ 　　* @param listener 对象消息监听
+ 　　*/
+    public static synchronized <T> void startJmsQueueListener(String queueName, Class<T> payloadType, TypedMessageListener<T> listener) {
+        startJmsQueueListener(queueName, null, typed(payloadType, listener));
+    }
+
+    public static synchronized <T> void startJmsTopicListener(String topicName, Class<T> payloadType, TypedMessageListener<T> listener) {
+        startJmsTopicListener(topicName, null, typed(payloadType, listener));
+    }
+
+    private static <T> MessageListener typed(Class<T> payloadType, TypedMessageListener<T> listener) {
+        return message -> {
+            T payload;
+            try {
+                payload = MessagePayloads.fromMessage(message, payloadType);
+            } catch (JMSException e) {
+                throw new IllegalStateException("read message payload error!", e);
+            } catch (RuntimeException e) {
+                throw new PoisonMessageException("decode message payload error!", e);
+            }
+            listener.onMessage(payload);
+        };
+    }
+
+    /**
+ 　　* 开始 消息监听器 消费者
+ 　　* 监听器运行在事务 session 中, 异常时按重投策略退避重投, 耗尽后转入死信队列, 见 DeadLetterMessageListener
+ 　　*
+ 　　* @param dest 目的地
+ 　　* @param subName 持久订阅的名字
+ 　　* @param msgListener 消息监听器
+ 　　*/
+    private static void startJmsListener(ActiveMQDestination dest, String subName, MessageListener msgListener){
+        ConnectionFactory factory = ConnectionActivemqFactory.getInstance();
+        AMQConfigBean config = ConnectionActivemqFactory.getConfig();
+        int maximumRedeliveries = config.redeliveryOf(dest).getMaximumRedeliveries();
+
+        SimpleMessageListenerContainer listener = new SimpleMessageListenerContainer();
+        listener.setConnectionFactory(factory);
+        listener.setDestination(dest);
+        listener.setSessionTransacted(true);
+        listener.setMessageListener(new DeadLetterMessageListener(dest, msgListener, maximumRedeliveries,
+                config.getDlqPrefix(), config.getParkingPrefix()));
+        if ((subName != null) && (subName != "")) {
+            listener.setDurableSubscriptionName(subName);
+        }
+        listener.start();
+    }
+}
@@ -0,0 +1,85 @@
+package com.springcloud.demo.listener;
+
+import com.springcloud.demo.codec.MessagePayloads;
+import com.springcloud.demo.factory.JmsTemplateFactory;
+import org.springframework.jms.core.MessageCreator;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+public class JMSPublisher {
+
+    /**
+ 　　* 发送消息
+ 　　* Topic 生产者
+ 　　* @param dest 目的地
+ 　　* @param msg 消息内容
+ 　　*/
+    public static void sendTopicMessage(String dest, String msg) {
+        JmsTemplateFactory.getInstance().getTopicJmsTemplate().send(dest, new MessageCreator(){
+            public Message createMessage(Session session) throws JMSException {
+                return session.createTextMessage(msg);
+            }
+        });
+    }
+
+    /**
+ 　　* 发送消息
+ 　　* Queue 生产者
+ 　　* @param dest 目的地
+ 　　* @param msg 消息内容
+ 　　*/
+    public static void sendQueueMessage(String dest, String msg) {
+        JmsTemplateFactory.getInstance().getQueueJmsTemplate().send(dest, new MessageCreator() {
+            public Message createMessage(Session session) throws JMSException {
+                return session.createTextMessage(msg);
+            }
+        });
+    }
+
+    /**
+ 　　* 发送对象消息(BytesMessage, 按 MessagePayloads 编码)
+ 　　* Topic 生产者
+ 　　* @param dest 目的地
+ 　　* @param payload 消息体
+ 　　*/
+    public static void sendTopicObject(String dest, Object payload) {
+        JmsTemplateFactory.getInstance().getTopicJmsTemplate().send(dest, new MessageCreator(){
+            public Message createMessage(Session session) throws JMSException {
+                return MessagePayloads.toMessage(session, payload);
+            }
+        });
+    }
+
+    /**
+ 　　* 发送对象消息(BytesMessage, 按 MessagePayloads 编码)
+ 　　* Queue 生产者
+ 　　* @param dest 目的地
+ 　　* @param payload 消息体
+ 　　*/
+    public static void sendQueueObject(String dest, Object payload) {
+        JmsTemplateFactory.getInstance().getQueueJmsTemplate().send(dest, new MessageCreator() {
+            public Message createMessage(Session session) throws JMSException {
+                return MessagePayloads.toMessage(session, payload);
+            }
+        });
+    }
+
+    /**
+ 　　* 发送对象消息, 同一 groupId 的消息由同一消费者按发送顺序处理(ActiveMQ 消息组)
+ 　　* Queue 生产者
+ 　　* @param dest 目的地
+ 　　* @param payload 消息体
+ 　　* @param groupId 消息组
+ 　　*/
+    public static void sendQueueObject(String dest, Object payload, String groupId) {
+        JmsTemplateFactory.getInstance().getQueueJmsTemplate().send(dest, new MessageCreator() {
+            public Message createMessage(Session session) throws JMSException {
+                Message message = MessagePayloads.toMessage(session, payload);
+                message.setStringProperty("JMSXGroupID", groupId);
+                return message;
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.springcloud.demo.listener;
+
+/**
+ * 毒消息异常, 重投也无法处理成功的消息(如消息体无法解析), 抛出后消息直接隔离到停放队列, 不再重投
+ */
+public class PoisonMessageException extends RuntimeException {
+
+    private static final long serialVersionUID = -2817430587512265396L;
+
+    public PoisonMessageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package com.springcloud.demo.listener;
+
+/**
+ * 对象消息监听器, 消息体已按消息头解码为 T
+ * @param <T> 消息体类型
+ */
+public interface TypedMessageListener<T> {
+
+    void onMessage(T payload);
+}
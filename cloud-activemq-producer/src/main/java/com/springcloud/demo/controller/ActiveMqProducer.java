@@ -1,8 +1,11 @@
 package com.springcloud.demo.controller;
 
+import com.springcloud.demo.listener.JMSDeadLetters;
 import com.springcloud.demo.listener.JMSListener;
 import com.springcloud.demo.listener.JMSPublisher;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -13,6 +16,7 @@ import javax.jms.TextMessage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -66,7 +70,8 @@ public class ActiveMqProducer{
                         list.add(text);
                     }
                 } catch (JMSException e) {
-                    e.printStackTrace();
+                    //抛出交由死信处理, 按重投策略重投
+                    throw new IllegalStateException(e);
                 }
             }
         });
@@ -79,6 +84,27 @@ public class ActiveMqProducer{
         }
     }
 
+    /**
+     * 查看死信/停放队列
+     * @param queue 死信或停放队列名称, 如 DLQ.queue/queue_b
+     */
+    @ResponseBody
+    @RequestMapping("/dlq/browse")
+    public List<Map<String, Object>> browseDeadLetters(String queue, @RequestParam(defaultValue = "100") int max) throws JMSException {
+        return JMSDeadLetters.browse(queue, max);
+    }
+
+    /**
+     * 重放死信/停放队列中的消息到原目的地
+     * 会从队列中取走消息, 只接受 POST, 且必须显式给出队列
+     * @param queue 死信或停放队列名称, 如 DLQ.queue/queue_b
+     */
+    @ResponseBody
+    @RequestMapping(value = "/dlq/replay", method = RequestMethod.POST)
+    public int replayDeadLetters(@RequestParam String queue, @RequestParam(defaultValue = "100") int max) throws JMSException {
+        return JMSDeadLetters.replay(queue, max);
+    }
+
     @ResponseBody
     @RequestMapping("/test")
     public String testMessege(){
@@ -0,0 +1,19 @@
+package com.springcloud.demo.api;
+
+import org.springframework.http.MediaType;
+
+/**
+ * @Description: 服务间调用可协商的内容类型
+ */
+public final class ApiMediaTypes {
+
+    /**
+     * Smile 二进制 JSON, 与 JSON 同一数据模型, 体积更小、解析更快
+     */
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+
+    private ApiMediaTypes() {
+    }
+}
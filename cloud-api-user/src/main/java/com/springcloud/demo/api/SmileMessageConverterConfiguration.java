@@ -0,0 +1,22 @@
+package com.springcloud.demo.api;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * @Description: 在 JSON 之后追加 Smile 转换器
+ * 只有请求头 Accept 明确要求 application/x-jackson-smile 时才按 Smile 输出, 其余请求仍为 JSON;
+ * Content-Type 为 Smile 的请求体也可直接读取
+ */
+@Configuration
+public class SmileMessageConverterConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter());
+    }
+}
@@ -0,0 +1,58 @@
+package com.springcloud.demo.api;
+
+import com.springcloud.demo.entity.User;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: 用户服务接口契约
+ * 由 cloud-provider-user 的控制类实现, cloud-controller-user 的 Feign 客户端继承, 路径前缀 /user
+ */
+public interface UserApi {
+
+    /**
+     * 服务名
+     */
+    String SERVICE_NAME = "CLOUD-PROVIDER-USER";
+
+    /**
+     * 路径前缀
+     */
+    String PATH = "/user";
+
+    /**
+     * 保存
+     * @param user
+     * @return 空对象 {}, 与原接口一致
+     */
+    @RequestMapping(value = "/save", method = RequestMethod.POST)
+    Map<String, Object> save(@RequestBody User user);
+
+    /**
+     * 查询所有用户
+     * 不限定请求方法, 与原接口一致; Feign 客户端未指定方法时按 GET 调用
+     * @return
+     */
+    @RequestMapping(value = "/find")
+    UserList findAll();
+
+    /**
+     * 按id批量查询
+     * @param ids
+     * @return 存在的用户, 顺序不保证
+     */
+    @RequestMapping(value = "/findByIds", method = RequestMethod.POST)
+    List<User> findByIds(@RequestBody List<Integer> ids);
+
+    /**
+     * 按用户名批量查询
+     * @param userNames
+     * @return 存在的用户, 顺序不保证
+     */
+    @RequestMapping(value = "/findByNames", method = RequestMethod.POST)
+    List<User> findByNames(@RequestBody List<String> userNames);
+}
@@ -0,0 +1,30 @@
+package com.springcloud.demo.api;
+
+import com.springcloud.demo.entity.User;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @Description: 用户列表, 序列化为 {"list": [...]}
+ */
+public class UserList implements Serializable {
+    private static final long serialVersionUID = -3306712425718592037L;
+
+    private List<User> list;
+
+    public UserList() {
+    }
+
+    public UserList(List<User> list) {
+        this.list = list;
+    }
+
+    public List<User> getList() {
+        return list;
+    }
+
+    public void setList(List<User> list) {
+        this.list = list;
+    }
+}
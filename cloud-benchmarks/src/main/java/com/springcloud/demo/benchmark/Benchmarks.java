@@ -0,0 +1,53 @@
+package com.springcloud.demo.benchmark;
+
+import com.springcloud.demo.entity.User;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试入口, 参数与 JMH 命令行相同(如 -f 1 -wi 3 -i 5 RedisString)
+ *
+ * 未指定 -rf 时结果以 JSON 写入 jmh-result.json, 便于不同构建之间对比。
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+            if (!commandLine.getResult().hasValue()) {
+                options.result("jmh-result.json");
+            }
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * 生成 size 个内容固定的用户
+     */
+    static List<User> users(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setUserName("user" + i);
+            user.setPassWord("pw" + i);
+            user.setIDCard(String.format("%018d", i));
+            user.setPhoneNumber(String.format("1%010d", i));
+            users.add(user);
+        }
+        return users;
+    }
+}
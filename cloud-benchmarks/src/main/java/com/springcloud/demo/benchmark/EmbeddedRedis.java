@@ -0,0 +1,62 @@
+package com.springcloud.demo.benchmark;
+
+import com.springcloud.demo.util.RedisUtil;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * 基准测试用的嵌入式 redis, 每个 JVM 只启动一个, 退出时停止
+ *
+ * 启动后按 Spring Boot 默认配置(Lettuce、JDK 序列化)创建 redisTemplate 并交给 RedisUtil,
+ * 必须在首次使用 RedisStringUtil、RedisLockUtil 等工具类之前调用, 它们在类初始化时取得 redisTemplate。
+ */
+final class EmbeddedRedis {
+
+    private static RedisTemplate<Object, Object> template;
+
+    private EmbeddedRedis() {
+    }
+
+    static synchronized RedisTemplate<Object, Object> start() {
+        if (template != null) {
+            return template;
+        }
+        int port = freePort();
+        RedisServer server = RedisServer.builder().port(port).setting("bind 127.0.0.1").setting("save \"\"").build();
+        server.start();
+
+        LettuceConnectionFactory connectionFactory =
+                new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        RedisTemplate<Object, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.getBeanFactory().registerSingleton("redisTemplate", redisTemplate);
+        context.refresh();
+        new RedisUtil().setApplicationContext(context);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            connectionFactory.destroy();
+            server.stop();
+        }, "embedded-redis-stop"));
+        template = redisTemplate;
+        return template;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
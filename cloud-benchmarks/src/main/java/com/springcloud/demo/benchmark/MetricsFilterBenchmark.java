@@ -0,0 +1,105 @@
+package com.springcloud.demo.benchmark;
+
+import com.springcloud.demo.filter.MetricsFilter;
+import com.springcloud.demo.filter.MetricsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsFilter.doFilter 的单次开销: baseline 只执行同样的过滤器链(匹配路由、进入处理器、写出响应体), filtered 再包上 MetricsFilter,
+ * 两者之差即统计本身的成本; payloadSizes 对应 filter.metrics.payload-sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricsFilterBenchmark {
+
+    private static final String ROUTE = MetricsFilterBenchmark.class.getName() + ".ROUTE";
+
+    private static final String[] ROUTES = {"/user/findAll", "/user/find", "/user/save", "/user/delete"};
+
+    private static final byte[] BODY = "{\"id\":1,\"userName\":\"user1\",\"passWord\":\"pw1\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"true", "false"})
+    private boolean payloadSizes;
+
+    private AnnotationConfigApplicationContext context;
+    private MetricsFilter filter;
+    private FilterChain chain;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(MetricsProperties.class, MetricsFilter.class);
+        context.refresh();
+        context.getBean(MetricsProperties.class).setPayloadSizes(payloadSizes);
+        filter = context.getBean(MetricsFilter.class);
+        HandlerInterceptor interceptor = filter.routeInterceptor();
+        chain = (request, response) -> {
+            //与 DispatcherServlet 一致: 匹配处理器后写入路由模板, 再经过拦截器
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, request.getAttribute(ROUTE));
+            try {
+                interceptor.preHandle((HttpServletRequest) request, (HttpServletResponse) response, this);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            response.getOutputStream().write(BODY);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse baseline() throws Exception {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        chain.doFilter(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filtered() throws Exception {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/find");
+        request.setAttribute(ROUTE, ROUTES[next++ & (ROUTES.length - 1)]);
+        return request;
+    }
+}
@@ -0,0 +1,61 @@
+package com.springcloud.demo.benchmark;
+
+import com.springcloud.demo.util.RedisLockUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisLockUtil 加锁(SET NX EX)与解锁(lua 校验后删除)
+ *
+ * uncontended 每个线程使用自己的锁; contended 4 个线程争抢同一把锁, 抢到才解锁。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RedisLockBenchmark {
+
+    private static final String SHARED_KEY = "bench:lock:shared";
+
+    @State(Scope.Thread)
+    public static class Lock {
+
+        private String key;
+        private String value;
+
+        @Setup
+        public void setUp() {
+            EmbeddedRedis.start();
+            value = UUID.randomUUID().toString();
+            key = "bench:lock:" + value;
+        }
+    }
+
+    @Benchmark
+    public Object uncontended(Lock lock) {
+        RedisLockUtil.getLock(lock.key, lock.value, 10, TimeUnit.SECONDS);
+        return RedisLockUtil.releaseLock(lock.key, lock.value);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object contended(Lock lock) {
+        if (Boolean.TRUE.equals(RedisLockUtil.getLock(SHARED_KEY, lock.value, 10, TimeUnit.SECONDS))) {
+            return RedisLockUtil.releaseLock(SHARED_KEY, lock.value);
+        }
+        return Boolean.FALSE;
+    }
+}
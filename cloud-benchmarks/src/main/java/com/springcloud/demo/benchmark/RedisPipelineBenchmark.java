@@ -0,0 +1,98 @@
+package com.springcloud.demo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一批 batch 个 key 的写入与读取: 逐个调用、管道(executePipelined)与 multiGet, 结果为整批耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RedisPipelineBenchmark {
+
+    @Param({"10", "100"})
+    private int batch;
+
+    private RedisTemplate<Object, Object> redisTemplate;
+    private List<Object> keys;
+
+    @Setup
+    public void setUp() {
+        redisTemplate = EmbeddedRedis.start();
+        keys = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            String key = "bench:pipeline:" + i;
+            keys.add(key);
+            redisTemplate.opsForValue().set(key, "value" + i);
+        }
+    }
+
+    @Benchmark
+    public void setPerCall() {
+        for (Object key : keys) {
+            redisTemplate.opsForValue().set(key, key);
+        }
+    }
+
+    @Benchmark
+    public List<Object> setPipelined() {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                for (Object key : keys) {
+                    operations.opsForValue().set(key, key);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Benchmark
+    public List<Object> getPerCall() {
+        List<Object> values = new ArrayList<>(batch);
+        for (Object key : keys) {
+            values.add(redisTemplate.opsForValue().get(key));
+        }
+        return values;
+    }
+
+    @Benchmark
+    public List<Object> getPipelined() {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                for (Object key : keys) {
+                    operations.opsForValue().get(key);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Benchmark
+    public List<Object> multiGet() {
+        return redisTemplate.opsForValue().multiGet(keys);
+    }
+}
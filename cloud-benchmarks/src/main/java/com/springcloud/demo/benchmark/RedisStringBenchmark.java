@@ -0,0 +1,56 @@
+package com.springcloud.demo.benchmark;
+
+import com.springcloud.demo.entity.User;
+import com.springcloud.demo.util.RedisStringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisStringUtil.set/get, 包含 JDK 序列化与网络往返; users 为值中的用户数, 1 对应单个对象, 其它为列表(如 findAll 缓存)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RedisStringBenchmark {
+
+    private static final String SET_KEY = "bench:string:set";
+    private static final String GET_KEY = "bench:string:get";
+
+    @Param({"1", "100", "10000"})
+    private int users;
+
+    private Object payload;
+
+    @Setup
+    public void setUp() {
+        EmbeddedRedis.start();
+        List<User> list = Benchmarks.users(users);
+        payload = users == 1 ? list.get(0) : list;
+        RedisStringUtil.set(GET_KEY, payload);
+    }
+
+    @Benchmark
+    public void set() {
+        RedisStringUtil.set(SET_KEY, payload);
+    }
+
+    @Benchmark
+    public Object get() {
+        return RedisStringUtil.get(GET_KEY);
+    }
+}
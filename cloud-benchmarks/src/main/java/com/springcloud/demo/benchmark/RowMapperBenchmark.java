@@ -0,0 +1,90 @@
+package com.springcloud.demo.benchmark;
+
+import com.springcloud.demo.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在内存 H2 上查询 rows 行用户, 比较结果映射方式:
+ * beanPropertyNew 每次查询新建 BeanPropertyRowMapper(UserDao 的写法), beanPropertyShared 复用同一实例, handWritten 手写映射。
+ * 注: BeanPropertyRowMapper 无法把 id_card 列对应到 IDCard 属性, 手写映射多设置这一列。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RowMapperBenchmark {
+
+    private static final String SQL = "select * from user order by id";
+
+    private static final RowMapper<User> HAND_WRITTEN = (rs, rowNum) -> {
+        User user = new User();
+        user.setId(rs.getInt("id"));
+        user.setUserName(rs.getString("user_name"));
+        user.setPassWord(rs.getString("pass_word"));
+        user.setIDCard(rs.getString("id_card"));
+        user.setPhoneNumber(rs.getString("phone_number"));
+        return user;
+    };
+
+    @Param({"1", "100", "1000"})
+    private int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final RowMapper<User> shared = new BeanPropertyRowMapper<>(User.class);
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists user");
+        jdbcTemplate.execute("create table user (id int(8) not null auto_increment, user_name varchar(20), "
+                + "pass_word varchar(32), id_card char(18), phone_number char(11), primary key (id))");
+        List<Object[]> args = new ArrayList<>(rows);
+        for (User user : Benchmarks.users(rows)) {
+            args.add(new Object[]{user.getUserName(), user.getPassWord(), user.getIDCard(), user.getPhoneNumber()});
+        }
+        jdbcTemplate.batchUpdate("insert into user(user_name, pass_word, id_card, phone_number) values(?,?,?,?)", args);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<User> beanPropertyNew() {
+        return jdbcTemplate.query(SQL, new BeanPropertyRowMapper<>(User.class));
+    }
+
+    @Benchmark
+    public List<User> beanPropertyShared() {
+        return jdbcTemplate.query(SQL, shared);
+    }
+
+    @Benchmark
+    public List<User> handWritten() {
+        return jdbcTemplate.query(SQL, HAND_WRITTEN);
+    }
+}
@@ -0,0 +1,72 @@
+package com.springcloud.demo.benchmark;
+
+import com.springcloud.demo.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 只比较值的序列化与反序列化, 不经过 redis: jdk 为 redisTemplate 当前使用的 JDK 序列化, json 为带类型信息的 Jackson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int users;
+
+    private final RedisSerializer<Object> jdk = new JdkSerializationRedisSerializer();
+    private final RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer();
+
+    private Object payload;
+    private byte[] jdkBytes;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setUp() {
+        List<User> list = Benchmarks.users(users);
+        //JSON 保留类型信息时需要具体的列表类型
+        payload = users == 1 ? list.get(0) : new ArrayList<>(list);
+        jdkBytes = jdk.serialize(payload);
+        jsonBytes = json.serialize(payload);
+    }
+
+    @Benchmark
+    public byte[] jdkSerialize() {
+        return jdk.serialize(payload);
+    }
+
+    @Benchmark
+    public Object jdkDeserialize() {
+        return jdk.deserialize(jdkBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return json.serialize(payload);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return json.deserialize(jsonBytes);
+    }
+}
@@ -1,12 +1,16 @@
 package com.springcloud.demo;
 
 
+import com.springcloud.demo.api.UserApi;
+import com.springcloud.demo.config.UserRibbonConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.netflix.ribbon.RibbonClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
 @SpringBootApplication
 @EnableFeignClients
+@RibbonClient(name = UserApi.SERVICE_NAME, configuration = UserRibbonConfiguration.class)
 public class UserControllerApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,122 @@
+package com.springcloud.demo.collapse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 把时间窗口内的单点查询合并成一次批量调用
+ *
+ * 第一个请求到达时开启窗口, 窗口结束或凑满 maxBatchSize 时发出批量调用;
+ * 同一窗口内的重复 key 只查询一次。scheduler 只负责窗口计时, 批量调用交给 batchExecutor 执行,
+ * 远程调用慢时不会拖住后续窗口的计时; batchExecutor 拒绝时该批次的请求以 RejectedExecutionException 结束。
+ * get 阻塞等待自己的结果, getAsync 不阻塞。
+ * @param <K> 查询键
+ * @param <V> 结果, 批量结果中不存在的键返回 null
+ */
+public class BatchCollapser<K, V> {
+
+    private final Function<List<K>, Map<K, V>> batchCall;
+    private final ScheduledExecutorService scheduler;
+    private final Executor batchExecutor;
+    private final long windowMicros;
+    private final int maxBatchSize;
+
+    private Batch<K, V> pending = new Batch<>();
+
+    public BatchCollapser(Function<List<K>, Map<K, V>> batchCall, ScheduledExecutorService scheduler,
+                          Executor batchExecutor, long windowMicros, int maxBatchSize) {
+        this.batchCall = batchCall;
+        this.scheduler = scheduler;
+        this.batchExecutor = batchExecutor;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public V get(K key) {
+        try {
+            return getAsync(key).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for batched request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public CompletableFuture<V> getAsync(K key) {
+        CompletableFuture<V> future;
+        Batch<K, V> full = null;
+        synchronized (this) {
+            future = pending.futures.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.futures.put(key, future);
+                if (pending.futures.size() == 1) {
+                    Batch<K, V> batch = pending;
+                    scheduler.schedule(() -> flush(batch), windowMicros, TimeUnit.MICROSECONDS);
+                }
+                if (pending.futures.size() >= maxBatchSize) {
+                    full = pending;
+                    pending = new Batch<>();
+                }
+            }
+        }
+        if (full != null) {
+            flush(full);
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    private void flush(Batch<K, V> batch) {
+        synchronized (this) {
+            if (batch == pending) {
+                pending = new Batch<>();
+            }
+        }
+        //凑满提前发出的批次, 窗口到期时不再重复发出
+        if (!batch.flushed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            batchExecutor.execute(() -> call(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void call(Batch<K, V> batch) {
+        try {
+            Map<K, V> results = batchCall.apply(new ArrayList<>(batch.futures.keySet()));
+            for (Map.Entry<K, CompletableFuture<V>> entry : batch.futures.entrySet()) {
+                entry.getValue().complete(results.get(entry.getKey()));
+            }
+        } catch (RuntimeException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void fail(Batch<K, V> batch, Throwable e) {
+        for (CompletableFuture<V> future : batch.futures.values()) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static class Batch<K, V> {
+        final Map<K, CompletableFuture<V>> futures = new HashMap<>();
+        final AtomicBoolean flushed = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,82 @@
+package com.springcloud.demo.collapse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 合并并发的相同请求: 同一 key 同时只有一个调用在执行, 其余调用等待并共享它的结果(或异常)
+ * 调用结束后立即移除, 不做缓存
+ * executeAsync 在 executor 上执行调用, 等待者只挂在同一个 future 上, 不占用线程
+ * @param <K> 请求标识
+ * @param <V> 结果
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return join(existing);
+        }
+        complete(key, created, call);
+        return join(created);
+    }
+
+    public CompletableFuture<V> executeAsync(K key, Supplier<V> call, Executor executor) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+        try {
+            executor.execute(() -> complete(key, created, call));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created.thenApply(Function.identity());
+    }
+
+    private void complete(K key, CompletableFuture<V> created, Supplier<V> call) {
+        try {
+            created.complete(call.get());
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 当前正在执行的不同请求数
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for collapsed request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.springcloud.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feign 调用调优配置, 对应 application.yml 中的 user.feign
+ * 连接池大小、keep-alive、单实例并发上限沿用 feign.httpclient 配置
+ */
+@Component
+@ConfigurationProperties(prefix = "user.feign")
+public class FeignClientTuningProperties {
+
+    /**
+     * 等待单实例并发许可的最长时间(毫秒)
+     */
+    private long acquireTimeout = 100;
+
+    /**
+     * 默认读超时(毫秒)
+     */
+    private int readTimeout = 5000;
+
+    /**
+     * 按方法名覆盖的超时
+     */
+    private final Map<String, Timeout> methods = new HashMap<>();
+
+    public long getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    public void setAcquireTimeout(long acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Map<String, Timeout> getMethods() {
+        return methods;
+    }
+
+    public static class Timeout {
+
+        /**
+         * 连接超时(毫秒)
+         */
+        private int connectTimeout;
+
+        /**
+         * 读超时(毫秒)
+         */
+        private int readTimeout;
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public int getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+}
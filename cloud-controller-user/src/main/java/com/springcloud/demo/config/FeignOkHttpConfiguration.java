@@ -0,0 +1,67 @@
+package com.springcloud.demo.config;
+
+import com.springcloud.demo.feign.HostConcurrencyLimitInterceptor;
+import com.springcloud.demo.feign.MethodTimeoutInterceptor;
+import com.springcloud.demo.loadbalance.LatencyRecordingInterceptor;
+import com.springcloud.demo.loadbalance.ServerLatencyTracker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.cloud.commons.httpclient.OkHttpClientConnectionPoolFactory;
+import org.springframework.cloud.commons.httpclient.OkHttpClientFactory;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign 底层 HTTP 客户端(feign.okhttp.enabled=true 时生效)
+ *
+ * 连接池: 空闲连接数 feign.httpclient.max-connections, keep-alive 时长 feign.httpclient.time-to-live;
+ * 单实例并发: feign.httpclient.max-connections-per-route;
+ * 协议: 优先 HTTP/2(TLS 下经 ALPN 协商), 不支持时回落 HTTP/1.1;
+ * 压缩: 不显式设置 Accept-Encoding, 由 OkHttp 自动请求 gzip 并透明解压;
+ * 每个实例的延迟与在途数记录到 ServerLatencyTracker, 供 LatencyAwareRule 选择实例。
+ *
+ * 连接/读超时须与 CLOUD-PROVIDER-USER.ribbon.ConnectTimeout/ReadTimeout 相同, 否则 Ribbon 传入的
+ * Request.Options 与客户端不一致, feign-okhttp 会在每次请求时 newBuilder() 重建客户端;
+ * 方法级超时由 MethodTimeoutInterceptor 在拦截器链上覆盖, 不触发重建。
+ */
+@Configuration
+public class FeignOkHttpConfiguration {
+
+    @Bean(destroyMethod = "evictAll")
+    public ConnectionPool feignConnectionPool(FeignHttpClientProperties httpClientProperties,
+                                              OkHttpClientConnectionPoolFactory connectionPoolFactory,
+                                              MeterRegistry meterRegistry) {
+        ConnectionPool pool = connectionPoolFactory.create(httpClientProperties.getMaxConnections(),
+                httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit());
+        Gauge.builder("feign.client.pool.connections", pool, ConnectionPool::connectionCount)
+                .description("open connections in the feign http pool").register(meterRegistry);
+        Gauge.builder("feign.client.pool.idle", pool, ConnectionPool::idleConnectionCount)
+                .description("idle connections in the feign http pool").register(meterRegistry);
+        return pool;
+    }
+
+    @Bean
+    public OkHttpClient feignOkHttpClient(OkHttpClientFactory httpClientFactory, ConnectionPool feignConnectionPool,
+                                          FeignHttpClientProperties httpClientProperties,
+                                          FeignClientTuningProperties tuningProperties, MeterRegistry meterRegistry,
+                                          ServerLatencyTracker latencyTracker) {
+        return httpClientFactory.createBuilder(httpClientProperties.isDisableSslValidation())
+                .connectTimeout(httpClientProperties.getConnectionTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(tuningProperties.getReadTimeout(), TimeUnit.MILLISECONDS)
+                .followRedirects(httpClientProperties.isFollowRedirects())
+                .connectionPool(feignConnectionPool)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .addInterceptor(new HostConcurrencyLimitInterceptor(httpClientProperties.getMaxConnectionsPerRoute(),
+                        tuningProperties.getAcquireTimeout(), meterRegistry))
+                .addInterceptor(new LatencyRecordingInterceptor(latencyTracker))
+                .addInterceptor(new MethodTimeoutInterceptor())
+                .build();
+    }
+}
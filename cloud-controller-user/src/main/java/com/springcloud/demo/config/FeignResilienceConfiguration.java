@@ -0,0 +1,34 @@
+package com.springcloud.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feign 调用隔离所需的共享资源
+ */
+@Configuration
+public class FeignResilienceConfiguration {
+
+    /**
+     * 对冲请求线程池: 不排队, 满时首次调用回落到调用线程执行且不再对冲
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService feignHedgeExecutor(FeignResilienceProperties properties) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.getHedgeThreads(), properties.getHedgeThreads(),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "feign-hedge-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
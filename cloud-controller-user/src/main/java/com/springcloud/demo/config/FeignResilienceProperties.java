@@ -0,0 +1,169 @@
+package com.springcloud.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feign 调用隔离配置, 对应 application.yml 中的 user.resilience
+ * 未在 methods 中配置的方法使用 defaults
+ */
+@Component
+@ConfigurationProperties(prefix = "user.resilience")
+public class FeignResilienceProperties {
+
+    /**
+     * 对冲请求线程池大小, 开启对冲的方法在该线程池中执行
+     */
+    private int hedgeThreads = 16;
+
+    private final Policy defaults = new Policy();
+
+    /**
+     * 按方法名覆盖的策略
+     */
+    private final Map<String, Policy> methods = new HashMap<>();
+
+    public int getHedgeThreads() {
+        return hedgeThreads;
+    }
+
+    public void setHedgeThreads(int hedgeThreads) {
+        this.hedgeThreads = hedgeThreads;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public Map<String, Policy> getMethods() {
+        return methods;
+    }
+
+    public Policy policyOf(String method) {
+        Policy policy = methods.get(method);
+        return policy != null ? policy : defaults;
+    }
+
+    public static class Policy {
+
+        /**
+         * 舱壁: 单个方法最大并发调用数
+         */
+        private int maxConcurrent = 20;
+
+        /**
+         * 舱壁: 等待并发许可的最长时间(毫秒), 0 表示不等待
+         */
+        private long maxWait = 0;
+
+        /**
+         * 熔断: 统计最近多少次调用
+         */
+        private int windowSize = 50;
+
+        /**
+         * 熔断: 窗口内至少多少次调用才计算失败率
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * 熔断: 失败率达到该百分比时打开
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * 熔断: 打开后多久进入半开(毫秒)
+         */
+        private long openMillis = 10000;
+
+        /**
+         * 熔断: 半开状态放行的试探调用数, 全部成功后关闭
+         */
+        private int halfOpenCalls = 5;
+
+        /**
+         * 是否对冲请求, 只应对幂等方法开启
+         */
+        private boolean hedge = false;
+
+        /**
+         * 对冲延迟下限(毫秒), 实际延迟取该值与方法成功耗时 p95 的较大者
+         */
+        private long hedgeMinDelay = 50;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public long getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(long maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public long getOpenMillis() {
+            return openMillis;
+        }
+
+        public void setOpenMillis(long openMillis) {
+            this.openMillis = openMillis;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public boolean isHedge() {
+            return hedge;
+        }
+
+        public void setHedge(boolean hedge) {
+            this.hedge = hedge;
+        }
+
+        public long getHedgeMinDelay() {
+            return hedgeMinDelay;
+        }
+
+        public void setHedgeMinDelay(long hedgeMinDelay) {
+            this.hedgeMinDelay = hedgeMinDelay;
+        }
+    }
+}
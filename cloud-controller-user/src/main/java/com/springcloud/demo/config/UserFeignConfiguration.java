@@ -0,0 +1,71 @@
+package com.springcloud.demo.config;
+
+import com.springcloud.demo.api.ApiMediaTypes;
+import com.springcloud.demo.feign.MeteredInvocationHandlerFactory;
+import com.springcloud.demo.resilience.ResilientInvocationHandlerFactory;
+import feign.Feign;
+import feign.RequestInterceptor;
+import feign.Retryer;
+import feign.codec.Decoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 用户服务 Feign 客户端配置(仅作用于 UserService, 不加 @Configuration 以免被全局扫描)
+ *
+ * user.api.binary 为 true 时请求头 Accept 优先 Smile, 提供方按 Smile 返回; 解码器同时支持 Smile 与 JSON
+ * 每个方法的耗时直方图与方法级超时见 MeteredInvocationHandlerFactory
+ * 每个方法的舱壁、熔断与对冲见 ResilientInvocationHandlerFactory
+ */
+public class UserFeignConfiguration {
+
+    private static final String ACCEPT = ApiMediaTypes.SMILE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    @Value("${user.api.binary:true}")
+    private boolean binary;
+
+    @Bean
+    @Scope("prototype")
+    public Feign.Builder userFeignBuilder(Retryer retryer, MeterRegistry meterRegistry,
+                                          FeignClientTuningProperties tuningProperties,
+                                          FeignResilienceProperties resilienceProperties,
+                                          @Qualifier("feignHedgeExecutor") ExecutorService hedgeExecutor) {
+        return Feign.builder()
+                .retryer(retryer)
+                .invocationHandlerFactory(new ResilientInvocationHandlerFactory(
+                        new MeteredInvocationHandlerFactory(meterRegistry, tuningProperties),
+                        resilienceProperties, hedgeExecutor, meterRegistry));
+    }
+
+    @Bean
+    public Decoder userFeignDecoder(ObjectFactory<HttpMessageConverters> messageConverters) {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(messageConverters.getObject().getConverters());
+        converters.add(new MappingJackson2SmileHttpMessageConverter());
+        HttpMessageConverters withSmile = new HttpMessageConverters(false, converters);
+        return new ResponseEntityDecoder(new SpringDecoder(() -> withSmile));
+    }
+
+    @Bean
+    public RequestInterceptor userFeignAcceptInterceptor() {
+        return template -> {
+            if (binary) {
+                template.header(HttpHeaders.ACCEPT, ACCEPT);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.springcloud.demo.config;
+
+import com.netflix.discovery.EurekaClient;
+import com.netflix.loadbalancer.ServerListUpdater;
+import com.netflix.niws.loadbalancer.EurekaNotificationServerListUpdater;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 用户服务 Ribbon 客户端配置(仅作用于 CLOUD-PROVIDER-USER, 不加 @Configuration 以免被全局扫描)
+ *
+ * 默认的 PollingServerListUpdater 每 30 秒从本地注册表缓存刷新一次实例列表,
+ * 新实例在 eureka 客户端拉到之后还要再等最多 30 秒; 改为在 eureka 客户端每次刷新缓存后立即更新实例列表,
+ * 实例上下线只受 eureka.client.registry-fetch-interval-seconds 影响。
+ */
+public class UserRibbonConfiguration {
+
+    @Bean
+    public ServerListUpdater ribbonServerListUpdater(ObjectProvider<EurekaClient> eurekaClient) {
+        return new EurekaNotificationServerListUpdater(eurekaClient::getObject);
+    }
+}
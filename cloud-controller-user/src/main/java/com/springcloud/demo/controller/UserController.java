@@ -1,6 +1,9 @@
 package com.springcloud.demo.controller;
 
+import com.springcloud.demo.api.UserList;
 import com.springcloud.demo.entity.User;
+import com.springcloud.demo.filter.ETagFilter;
+import com.springcloud.demo.service.CollapsingUserService;
 import com.springcloud.demo.service.UserService;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
@@ -10,9 +13,10 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @Author: dq
@@ -27,6 +31,9 @@ public class UserController {
 
     @Resource
     private UserService userService;
+
+    @Resource
+    private CollapsingUserService collapsingUserService;
     /**
      * 保存
      * @param
@@ -53,7 +60,79 @@ public class UserController {
     @ApiOperation(value = "查询所有用户")
     @ResponseBody
     @RequestMapping(value = "/find" ,method = RequestMethod.GET)
-    public String findAll() {
-        return userService.findAll();
+    public UserList findAll(HttpServletRequest request) {
+        return markFallback(request, collapsingUserService.findAll());
+    }
+
+    /**
+     * 按id查询
+     * @param id
+     * @return
+     */
+    @ApiOperation(value = "按id查询用户")
+    @ResponseBody
+    @RequestMapping(value = "/{id}" ,method = RequestMethod.GET)
+    public User findById(@PathVariable("id") Integer id) {
+        return collapsingUserService.findById(id);
+    }
+
+    /**
+     * 按用户名查询
+     * @param userName
+     * @return
+     */
+    @ApiOperation(value = "按用户名查询用户")
+    @ResponseBody
+    @RequestMapping(value = "/byName" ,method = RequestMethod.GET)
+    public User findByName(@RequestParam("userName") String userName) {
+        return collapsingUserService.findByName(userName);
+    }
+
+    /**
+     * 异步保存, 远程调用期间不占用请求线程
+     * @param user
+     * @return
+     */
+    @ApiOperation(value = "异步保存用户")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "user", value = "用户", required = true, dataType = "User")
+    })
+    @ResponseBody
+    @RequestMapping(value = "/async/save" ,method = RequestMethod.POST)
+    public CompletableFuture<Map<String, Object>> saveAsync(@RequestBody User user) {
+        return collapsingUserService.saveAsync(user).thenApply(v -> new HashMap<>());
+    }
+
+    /**
+     * 异步查询所有用户, 远程调用期间不占用请求线程
+     * @return
+     */
+    @ApiOperation(value = "异步查询所有用户")
+    @ResponseBody
+    @RequestMapping(value = "/async/find" ,method = RequestMethod.GET)
+    public CompletableFuture<UserList> findAllAsync(HttpServletRequest request) {
+        return collapsingUserService.findAllAsync().thenApply(users -> markFallback(request, users));
+    }
+
+    /**
+     * 异步按id查询
+     * @param id
+     * @return
+     */
+    @ApiOperation(value = "异步按id查询用户")
+    @ResponseBody
+    @RequestMapping(value = "/async/{id}" ,method = RequestMethod.GET)
+    public CompletableFuture<User> findByIdAsync(@PathVariable("id") Integer id) {
+        return collapsingUserService.findByIdAsync(id);
+    }
+
+    /**
+     * 降级返回的旧数据不是当前版本, 不能带上 ETag
+     */
+    private UserList markFallback(HttpServletRequest request, UserList users) {
+        if (collapsingUserService.isFallback(users)) {
+            request.setAttribute(ETagFilter.NOT_FRESH_ATTRIBUTE, Boolean.TRUE);
+        }
+        return users;
     }
 }
@@ -0,0 +1,50 @@
+package com.springcloud.demo.feign;
+
+/**
+ * 当前线程正在执行的 Feign 方法及其超时配置
+ * 由 MeteredInvocationHandlerFactory 设置, OkHttp 拦截器在同一线程上读取(Feign 为同步调用)
+ */
+public final class FeignMethodContext {
+
+    private static final ThreadLocal<FeignMethodContext> CURRENT = new ThreadLocal<>();
+
+    private final String methodKey;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    public FeignMethodContext(String methodKey, int connectTimeout, int readTimeout) {
+        this.methodKey = methodKey;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    public static FeignMethodContext current() {
+        return CURRENT.get();
+    }
+
+    static void set(FeignMethodContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public String getMethodKey() {
+        return methodKey;
+    }
+
+    /**
+     * 连接超时(毫秒), 0 表示沿用客户端默认值
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * 读超时(毫秒), 0 表示沿用客户端默认值
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+}
@@ -0,0 +1,60 @@
+package com.springcloud.demo.feign;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限制对每个目标实例(host:port)的并发请求数
+ * OkHttp 的 Dispatcher 只限制异步调用, Feign 走同步调用, 因此在拦截器中用信号量限流;
+ * 等待许可超过 acquireTimeout 时快速失败, 而不是让调用线程无限排队
+ */
+public class HostConcurrencyLimitInterceptor implements Interceptor {
+
+    private final int maxRequestsPerHost;
+    private final long acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public HostConcurrencyLimitInterceptor(int maxRequestsPerHost, long acquireTimeout, MeterRegistry meterRegistry) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = chain.request().url().host() + ":" + chain.request().url().port();
+        Semaphore semaphore = permits.computeIfAbsent(host, this::newSemaphore);
+        try {
+            if (!semaphore.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                throw new IOException("too many concurrent requests to " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + host);
+        }
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    private Semaphore newSemaphore(String host) {
+        Semaphore semaphore = new Semaphore(maxRequestsPerHost);
+        Gauge.builder("feign.client.host.inflight", semaphore, s -> maxRequestsPerHost - s.availablePermits())
+                .tag("host", host)
+                .description("in-flight feign requests per target instance")
+                .register(meterRegistry);
+        return semaphore;
+    }
+}
@@ -0,0 +1,99 @@
+package com.springcloud.demo.feign;
+
+import com.springcloud.demo.config.FeignClientTuningProperties;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为每个 Feign 方法记录耗时直方图(feign.client.requests), 并把方法级超时放入 FeignMethodContext
+ * 每个方法的超时上下文与计时器在创建代理时构建一次, 调用时不再查找配置或注册计时器
+ */
+public class MeteredInvocationHandlerFactory implements InvocationHandlerFactory {
+
+    private static final String SUCCESS = "success";
+
+    private final InvocationHandlerFactory delegate = new InvocationHandlerFactory.Default();
+    private final MeterRegistry meterRegistry;
+    private final FeignClientTuningProperties properties;
+
+    public MeteredInvocationHandlerFactory(MeterRegistry meterRegistry, FeignClientTuningProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+        InvocationHandler handler = delegate.create(target, dispatch);
+        Map<Method, MethodMeters> meters = new HashMap<>(dispatch.size() * 2);
+        for (Method method : dispatch.keySet()) {
+            meters.put(method, new MethodMeters(target.name(), method));
+        }
+        return (proxy, method, args) -> {
+            MethodMeters methodMeters = meters.get(method);
+            if (methodMeters == null) {
+                return handler.invoke(proxy, method, args);
+            }
+            FeignMethodContext.set(methodMeters.context);
+            long start = System.nanoTime();
+            String outcome = SUCCESS;
+            try {
+                return handler.invoke(proxy, method, args);
+            } catch (Throwable e) {
+                outcome = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                FeignMethodContext.clear();
+                methodMeters.timer(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * 单个 Feign 方法的超时上下文与按结果区分的计时器
+     */
+    private final class MethodMeters {
+
+        private final String client;
+        private final String method;
+        private final FeignMethodContext context;
+        private final Timer success;
+        private final ConcurrentMap<String, Timer> failures = new ConcurrentHashMap<>();
+
+        MethodMeters(String client, Method method) {
+            this.client = client;
+            this.method = method.getName();
+            FeignClientTuningProperties.Timeout timeout = properties.getMethods().get(this.method);
+            this.context = new FeignMethodContext(this.method,
+                    timeout == null ? 0 : timeout.getConnectTimeout(),
+                    timeout == null ? 0 : timeout.getReadTimeout());
+            this.success = register(SUCCESS);
+        }
+
+        Timer timer(String outcome) {
+            if (SUCCESS.equals(outcome)) {
+                return success;
+            }
+            return failures.computeIfAbsent(outcome, this::register);
+        }
+
+        private Timer register(String outcome) {
+            return Timer.builder("feign.client.requests")
+                    .tag("client", client)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.springcloud.demo.feign;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 Feign 方法覆盖连接/读超时
+ */
+public class MethodTimeoutInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        FeignMethodContext context = FeignMethodContext.current();
+        if (context != null) {
+            if (context.getConnectTimeout() > 0) {
+                chain = chain.withConnectTimeout(context.getConnectTimeout(), TimeUnit.MILLISECONDS);
+            }
+            if (context.getReadTimeout() > 0) {
+                chain = chain.withReadTimeout(context.getReadTimeout(), TimeUnit.MILLISECONDS);
+            }
+        }
+        return chain.proceed(chain.request());
+    }
+}
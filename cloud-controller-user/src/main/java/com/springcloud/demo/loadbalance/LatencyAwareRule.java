@@ -0,0 +1,113 @@
+package com.springcloud.demo.loadbalance;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于观测延迟的负载均衡规则(power of two choices)
+ *
+ * 从未被剔除的可用实例中随机取两个, 选代价(EWMA 延迟 x 在途数 / 预热权重)较小者;
+ * 被剔除的实例超过 maxEjectionPercent 时忽略剔除, 避免全部被摘掉;
+ * 预热期内在途数已满的实例不参与选择(全部已满时忽略该限制);
+ * 实例从列表中移除时清理 ServerLatencyTracker 中的状态;
+ * 当前线程有 ServerChoice 时避开其指定的实例(对冲请求), 并记录选中的实例。
+ * 相比轮询, 单个 GC 停顿或变慢的实例会迅速少拿流量, p99 不再被它拖累。
+ *
+ * 通过 <clientName>.ribbon.NFLoadBalancerRuleClassName 配置启用(ZoneAwareLoadBalancer 会用无参构造复制规则)。
+ */
+public class LatencyAwareRule extends AbstractLoadBalancerRule {
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+    }
+
+    @Override
+    public void setLoadBalancer(ILoadBalancer lb) {
+        super.setLoadBalancer(lb);
+        if (lb instanceof BaseLoadBalancer) {
+            ((BaseLoadBalancer) lb).addServerListChangeListener(this::serverListChanged);
+        }
+    }
+
+    private void serverListChanged(List<Server> oldList, List<Server> newList) {
+        Set<String> removed = new HashSet<>();
+        for (Server server : oldList) {
+            removed.add(server.getHostPort());
+        }
+        for (Server server : newList) {
+            removed.remove(server.getHostPort());
+        }
+        if (!removed.isEmpty()) {
+            ServerLatencyTracker.getInstance().remove(removed);
+        }
+    }
+
+    @Override
+    public Server choose(Object key) {
+        ILoadBalancer lb = getLoadBalancer();
+        if (lb == null) {
+            return null;
+        }
+        List<Server> servers = lb.getReachableServers();
+        if (servers.isEmpty()) {
+            return null;
+        }
+        ServerLatencyTracker tracker = ServerLatencyTracker.getInstance();
+        int maxEjectionPercent = tracker.getMaxEjectionPercent();
+        long now = System.currentTimeMillis();
+        List<Server> candidates = new ArrayList<>(servers.size());
+        for (Server server : servers) {
+            if (!tracker.state(server.getHostPort()).isEjected(now)) {
+                candidates.add(server);
+            }
+        }
+        if ((servers.size() - candidates.size()) * 100 > servers.size() * maxEjectionPercent || candidates.isEmpty()) {
+            candidates = new ArrayList<>(servers);
+        }
+        if (candidates.size() > 1) {
+            List<Server> unsaturated = new ArrayList<>(candidates.size());
+            for (Server server : candidates) {
+                if (!tracker.state(server.getHostPort()).isSaturated(now)) {
+                    unsaturated.add(server);
+                }
+            }
+            if (!unsaturated.isEmpty()) {
+                candidates = unsaturated;
+            }
+        }
+        ServerChoice choice = ServerChoice.current();
+        if (choice != null && choice.getExclude() != null && candidates.size() > 1) {
+            candidates.removeIf(server -> choice.getExclude().equals(server.getHostPort()));
+        }
+        Server selected = select(candidates, tracker, now);
+        if (choice != null) {
+            choice.setChosen(selected.getHostPort());
+        }
+        return selected;
+    }
+
+    private Server select(List<Server> candidates, ServerLatencyTracker tracker, long now) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(candidates.size());
+        int j = random.nextInt(candidates.size() - 1);
+        if (j >= i) {
+            j++;
+        }
+        Server a = candidates.get(i);
+        Server b = candidates.get(j);
+        double seed = tracker.seedLatencyNanos();
+        return tracker.state(a.getHostPort()).cost(now, seed) <= tracker.state(b.getHostPort()).cost(now, seed) ? a : b;
+    }
+}
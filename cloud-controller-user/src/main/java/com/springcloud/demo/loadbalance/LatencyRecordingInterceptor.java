@@ -0,0 +1,42 @@
+package com.springcloud.demo.loadbalance;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * 记录每个目标实例的在途数、耗时与成败(IO 异常或 5xx 视为失败)
+ * 对冲落败被取消的请求不计为失败, 见 ServerChoice
+ */
+public class LatencyRecordingInterceptor implements Interceptor {
+
+    private final ServerLatencyTracker tracker;
+
+    public LatencyRecordingInterceptor(ServerLatencyTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String hostPort = chain.request().url().host() + ":" + chain.request().url().port();
+        ServerChoice choice = ServerChoice.current();
+        if (choice != null) {
+            choice.attach(chain.call());
+        }
+        tracker.onStart(hostPort);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Response response = chain.proceed(chain.request());
+            success = response.code() < 500;
+            return response;
+        } finally {
+            if (!success && choice != null && choice.isCancelled()) {
+                tracker.onCancel(hostPort, System.nanoTime() - start);
+            } else {
+                tracker.onComplete(hostPort, System.nanoTime() - start, success);
+            }
+        }
+    }
+}
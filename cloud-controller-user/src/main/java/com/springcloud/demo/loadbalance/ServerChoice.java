@@ -0,0 +1,76 @@
+package com.springcloud.demo.loadbalance;
+
+import okhttp3.Call;
+
+/**
+ * 当前线程一次调用的实例选择: 记录 LatencyAwareRule 选中的实例, 并可要求避开某个实例
+ * 对冲请求用它把第二次调用发往与首次调用不同的实例, 并在另一次调用胜出后取消本次调用
+ */
+public final class ServerChoice {
+
+    private static final ThreadLocal<ServerChoice> CURRENT = new ThreadLocal<>();
+
+    private final String exclude;
+    private volatile String chosen;
+    private volatile Call call;
+    private volatile boolean cancelled;
+
+    public ServerChoice(String exclude) {
+        this.exclude = exclude;
+    }
+
+    public static ServerChoice current() {
+        return CURRENT.get();
+    }
+
+    public static void set(ServerChoice choice) {
+        CURRENT.set(choice);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 需要避开的实例(host:port), 可为 null
+     */
+    public String getExclude() {
+        return exclude;
+    }
+
+    /**
+     * 最近一次选中的实例(host:port)
+     */
+    public String getChosen() {
+        return chosen;
+    }
+
+    void setChosen(String chosen) {
+        this.chosen = chosen;
+    }
+
+    /**
+     * 关联本次调用正在执行的 HTTP 请求, 已取消时立即取消该请求
+     */
+    void attach(Call call) {
+        this.call = call;
+        if (cancelled) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * 取消本次调用: 已发出的 HTTP 请求立即中止, 之后发出的请求在关联时中止
+     */
+    public void cancel() {
+        cancelled = true;
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,214 @@
+package com.springcloud.demo.loadbalance;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按目标实例(host:port)统计的调用状态, 由 LatencyRecordingInterceptor 写入, LatencyAwareRule 读取
+ *
+ * 延迟: 随时间衰减的 EWMA(衰减时间常数 decayMillis), 比当前值更慢的样本直接生效(peak EWMA), 对变慢反应快、恢复平滑;
+ *       失败的样本至少按 1 秒计, 避免快速失败(如连接被拒)的实例因"延迟低"反而吸走流量;
+ * 在途: 当前未完成的请求数;
+ * 剔除: 连续失败 consecutiveFailures 次后剔除 baseEjectionMillis * 剔除次数, 到期自动恢复;
+ * 预热: 首次出现后 slowStartMillis 内权重从 10% 线性升至 100%, 在途数上限 slowStartMaxInFlight 按同一权重放开;
+ * 尚无样本的实例按其余实例 EWMA 的均值计(都没有样本时按 defaultLatencyMillis), 不会因"零延迟"吸走流量;
+ * Ribbon 实例列表中移除的实例由 LatencyAwareRule 通知 remove 清理。
+ */
+@Component
+public class ServerLatencyTracker implements ApplicationContextAware {
+
+    private static final long FAILURE_PENALTY_NANOS = 1000_000_000L;
+
+    private static ServerLatencyTracker instance;
+
+    private final Map<String, ServerState> states = new ConcurrentHashMap<>();
+
+    @Value("${user.loadbalance.decay-millis:10000}")
+    private long decayMillis;
+
+    @Value("${user.loadbalance.slow-start-millis:30000}")
+    private long slowStartMillis;
+
+    @Value("${user.loadbalance.slow-start-max-in-flight:10}")
+    private int slowStartMaxInFlight;
+
+    @Value("${user.loadbalance.default-latency-millis:100}")
+    private long defaultLatencyMillis;
+
+    @Value("${user.loadbalance.consecutive-failures:5}")
+    private int consecutiveFailures;
+
+    @Value("${user.loadbalance.base-ejection-millis:30000}")
+    private long baseEjectionMillis;
+
+    @Value("${user.loadbalance.max-ejection-percent:50}")
+    private int maxEjectionPercent;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        ServerLatencyTracker.instance = applicationContext.getBean(ServerLatencyTracker.class);
+    }
+
+    /**
+     * Ribbon 通过反射创建规则, 无法注入, 由此取得实例
+     */
+    public static ServerLatencyTracker getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("server latency tracker not initialized!");
+        }
+        return instance;
+    }
+
+    public int getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    public ServerState state(String hostPort) {
+        return states.computeIfAbsent(hostPort, key -> new ServerState(System.currentTimeMillis()));
+    }
+
+    public void onStart(String hostPort) {
+        state(hostPort).onStart();
+    }
+
+    /**
+     * 请求发出后实例已被移除时忽略, 不重新创建状态
+     */
+    public void onComplete(String hostPort, long latencyNanos, boolean success) {
+        ServerState state = states.get(hostPort);
+        if (state != null) {
+            state.onComplete(latencyNanos, success);
+        }
+    }
+
+    /**
+     * 对冲落败被取消的请求: 只知道耗时下限, 不计失败
+     */
+    public void onCancel(String hostPort, long elapsedNanos) {
+        ServerState state = states.get(hostPort);
+        if (state != null) {
+            state.onCancel(elapsedNanos);
+        }
+    }
+
+    /**
+     * 实例从 Ribbon 列表中移除后丢弃其状态, 重新上线时按新实例预热
+     */
+    public void remove(Collection<String> hostPorts) {
+        for (String hostPort : hostPorts) {
+            states.remove(hostPort);
+        }
+    }
+
+    /**
+     * 尚无样本实例的初始延迟: 已有样本实例的 EWMA 均值, 都没有样本时取 defaultLatencyMillis
+     */
+    public double seedLatencyNanos() {
+        double sum = 0;
+        int count = 0;
+        for (ServerState state : states.values()) {
+            double ewma = state.ewmaNanos();
+            if (ewma >= 0) {
+                sum += ewma;
+                count++;
+            }
+        }
+        return count == 0 ? TimeUnit.MILLISECONDS.toNanos(defaultLatencyMillis) : sum / count;
+    }
+
+    public final class ServerState {
+
+        private final long firstSeen;
+        private int inFlight;
+        private double ewmaNanos;
+        private long lastUpdate;
+        private int failures;
+        private int ejections;
+        private long ejectedUntil;
+
+        ServerState(long firstSeen) {
+            this.firstSeen = firstSeen;
+        }
+
+        synchronized void onStart() {
+            inFlight++;
+        }
+
+        synchronized void onComplete(long latencyNanos, boolean success) {
+            inFlight--;
+            long now = System.currentTimeMillis();
+            if (!success) {
+                latencyNanos = Math.max(latencyNanos, FAILURE_PENALTY_NANOS);
+            }
+            if (lastUpdate == 0 || latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double w = Math.exp(-(double) (now - lastUpdate) / decayMillis);
+                ewmaNanos = ewmaNanos * w + latencyNanos * (1 - w);
+            }
+            lastUpdate = now;
+            if (success) {
+                failures = 0;
+                ejections = 0;
+            } else if (++failures >= consecutiveFailures) {
+                ejections++;
+                ejectedUntil = now + baseEjectionMillis * ejections;
+                failures = 0;
+            }
+        }
+
+        synchronized void onCancel(long elapsedNanos) {
+            inFlight--;
+            if (elapsedNanos > ewmaNanos) {
+                ewmaNanos = elapsedNanos;
+                lastUpdate = System.currentTimeMillis();
+            }
+        }
+
+        public synchronized boolean isEjected(long now) {
+            return now < ejectedUntil;
+        }
+
+        /**
+         * 预热期内在途数已达上限(slowStartMaxInFlight * 预热权重, 至少 1)
+         */
+        public synchronized boolean isSaturated(long now) {
+            if (now - firstSeen >= slowStartMillis) {
+                return false;
+            }
+            return inFlight >= Math.max(1, (int) (slowStartMaxInFlight * weight(now)));
+        }
+
+        /**
+         * 选择代价, 越小越优: EWMA 延迟 * (在途 + 1) / 预热权重
+         * 尚无样本的实例按 seedNanos 计
+         */
+        public synchronized double cost(long now, double seedNanos) {
+            double latency = lastUpdate == 0 ? seedNanos : ewmaNanos;
+            return (latency + 1) * (inFlight + 1) / weight(now);
+        }
+
+        /**
+         * 当前 EWMA 延迟, 尚无样本时返回 -1
+         */
+        synchronized double ewmaNanos() {
+            return lastUpdate == 0 ? -1 : ewmaNanos;
+        }
+
+        private double weight(long now) {
+            long age = now - firstSeen;
+            if (age < slowStartMillis) {
+                return 0.1 + 0.9 * age / slowStartMillis;
+            }
+            return 1;
+        }
+    }
+}
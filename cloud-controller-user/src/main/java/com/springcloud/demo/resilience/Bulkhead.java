@@ -0,0 +1,39 @@
+package com.springcloud.demo.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 信号量舱壁, 限制单个方法占用的调用线程数, 一个慢方法不会拖住所有 Tomcat 线程
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final long maxWait;
+    private final Semaphore semaphore;
+
+    public Bulkhead(String name, int maxConcurrent, long maxWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.semaphore = new Semaphore(maxConcurrent);
+    }
+
+    public void acquire() throws InterruptedException {
+        boolean acquired = maxWait > 0
+                ? semaphore.tryAcquire(maxWait, TimeUnit.MILLISECONDS)
+                : semaphore.tryAcquire();
+        if (!acquired) {
+            throw new BulkheadFullException(name);
+        }
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public int inFlight() {
+        return maxConcurrent - semaphore.availablePermits();
+    }
+}
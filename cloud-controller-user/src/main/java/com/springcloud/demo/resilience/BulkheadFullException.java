@@ -0,0 +1,11 @@
+package com.springcloud.demo.resilience;
+
+/**
+ * 舱壁已满, 调用被拒绝
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String name) {
+        super("bulkhead full: " + name);
+    }
+}
@@ -0,0 +1,111 @@
+package com.springcloud.demo.resilience;
+
+/**
+ * 基于最近 windowSize 次调用失败率的熔断器
+ *
+ * CLOSED: 正常放行, 窗口内调用数达到 minimumCalls 且失败率达到阈值时打开;
+ * OPEN: 拒绝调用, openMillis 后进入半开;
+ * HALF_OPEN: 放行 halfOpenCalls 次试探调用, 全部成功则关闭, 任一失败重新打开。
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openMillis;
+    private final int halfOpenCalls;
+
+    private final boolean[] window;
+    private int index;
+    private int count;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openMillis, int halfOpenCalls) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * 是否放行本次调用, 放行后必须调用 onSuccess 或 onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                reset();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (count >= minimumCalls && failures * 100 >= failureRateThreshold * count) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (count == window.length) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            count++;
+        }
+        window[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        index = 0;
+        count = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.springcloud.demo.resilience;
+
+/**
+ * 熔断器打开, 调用被拒绝
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String name) {
+        super("circuit breaker open: " + name);
+    }
+}
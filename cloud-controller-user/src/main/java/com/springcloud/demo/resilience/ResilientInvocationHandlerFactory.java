@@ -0,0 +1,279 @@
+package com.springcloud.demo.resilience;
+
+import com.springcloud.demo.config.FeignResilienceProperties;
+import com.springcloud.demo.loadbalance.ServerChoice;
+import feign.FeignException;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 Feign 方法隔离调用: 舱壁 -> 熔断 -> (可选)对冲 -> delegate
+ *
+ * 舱壁与熔断拒绝时分别抛出 BulkheadFullException / CircuitBreakerOpenException, 降级由调用方处理;
+ * 4xx 视为调用方错误, 不计入熔断失败率;
+ * 对冲: 首次调用超过 max(hedgeMinDelay, 成功耗时 p95) 仍未返回时, 向另一个实例再发一次, 取先成功者并取消其余尝试;
+ * 对冲调用的舱壁许可在最后一个尝试结束后才释放。
+ */
+public class ResilientInvocationHandlerFactory implements InvocationHandlerFactory {
+
+    private static final long HEDGE_DELAY_REFRESH_MILLIS = 1000;
+
+    private final InvocationHandlerFactory delegate;
+    private final FeignResilienceProperties properties;
+    private final ExecutorService hedgeExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public ResilientInvocationHandlerFactory(InvocationHandlerFactory delegate, FeignResilienceProperties properties,
+                                             ExecutorService hedgeExecutor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.hedgeExecutor = hedgeExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+        InvocationHandler handler = delegate.create(target, dispatch);
+        Map<Method, MethodGuard> guards = new HashMap<>();
+        for (Method method : dispatch.keySet()) {
+            guards.put(method, new MethodGuard(target.name(), method.getName(), properties.policyOf(method.getName())));
+        }
+        return (proxy, method, args) -> {
+            MethodGuard guard = guards.get(method);
+            if (guard == null) {
+                return handler.invoke(proxy, method, args);
+            }
+            return guard.invoke(() -> handler.invoke(proxy, method, args));
+        };
+    }
+
+    private static boolean isServerFailure(Throwable e) {
+        if (e instanceof FeignException) {
+            int status = ((FeignException) e).status();
+            return status < 400 || status >= 500;
+        }
+        return true;
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        throw (Error) cause;
+    }
+
+    private interface Call {
+        Object call() throws Throwable;
+    }
+
+    private class MethodGuard {
+
+        private final String client;
+        private final String method;
+        private final FeignResilienceProperties.Policy policy;
+        private final Bulkhead bulkhead;
+        private final CircuitBreaker breaker;
+        private final Counter bulkheadRejected;
+        private final Counter circuitRejected;
+        private final Counter hedged;
+        private volatile long hedgeDelay;
+        private volatile long hedgeDelayRefreshedAt;
+
+        MethodGuard(String client, String method, FeignResilienceProperties.Policy policy) {
+            this.client = client;
+            this.method = method;
+            this.policy = policy;
+            this.bulkhead = new Bulkhead(client + "#" + method, policy.getMaxConcurrent(), policy.getMaxWait());
+            this.breaker = new CircuitBreaker(policy.getWindowSize(), policy.getMinimumCalls(),
+                    policy.getFailureRateThreshold(), policy.getOpenMillis(), policy.getHalfOpenCalls());
+            this.hedgeDelay = policy.getHedgeMinDelay();
+            Gauge.builder("feign.client.circuit.state", breaker, b -> b.getState().ordinal())
+                    .tag("client", client).tag("method", method)
+                    .description("0 closed, 1 open, 2 half open")
+                    .register(meterRegistry);
+            Gauge.builder("feign.client.bulkhead.inflight", bulkhead, Bulkhead::inFlight)
+                    .tag("client", client).tag("method", method)
+                    .register(meterRegistry);
+            this.bulkheadRejected = rejected("bulkhead");
+            this.circuitRejected = rejected("circuit_open");
+            this.hedged = Counter.builder("feign.client.hedged")
+                    .tag("client", client).tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        private Counter rejected(String reason) {
+            return Counter.builder("feign.client.rejected")
+                    .tag("client", client).tag("method", method).tag("reason", reason)
+                    .register(meterRegistry);
+        }
+
+        Object invoke(Call call) throws Throwable {
+            try {
+                bulkhead.acquire();
+            } catch (BulkheadFullException e) {
+                bulkheadRejected.increment();
+                throw e;
+            }
+            HedgedCall hedgedCall = policy.isHedge() ? new HedgedCall(call) : null;
+            try {
+                if (!breaker.tryAcquire()) {
+                    circuitRejected.increment();
+                    throw new CircuitBreakerOpenException(client + "#" + method);
+                }
+                try {
+                    Object result = hedgedCall != null ? hedgedCall.invoke() : call.call();
+                    breaker.onSuccess();
+                    return result;
+                } catch (Throwable e) {
+                    if (isServerFailure(e)) {
+                        breaker.onFailure();
+                    } else {
+                        breaker.onSuccess();
+                    }
+                    throw e;
+                }
+            } finally {
+                if (hedgedCall != null) {
+                    hedgedCall.release();
+                } else {
+                    bulkhead.release();
+                }
+            }
+        }
+
+        /**
+         * 对冲延迟, 每秒按成功调用耗时的 p95 刷新一次
+         */
+        private long hedgeDelay() {
+            long now = System.currentTimeMillis();
+            if (now - hedgeDelayRefreshedAt >= HEDGE_DELAY_REFRESH_MILLIS) {
+                hedgeDelayRefreshedAt = now;
+                long p95 = 0;
+                Timer timer = meterRegistry.find("feign.client.requests")
+                        .tags("client", client, "method", method, "outcome", "success").timer();
+                if (timer != null) {
+                    for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                        if (value.percentile() == 0.95) {
+                            p95 = (long) value.value(TimeUnit.MILLISECONDS);
+                        }
+                    }
+                }
+                hedgeDelay = Math.max(policy.getHedgeMinDelay(), p95);
+            }
+            return hedgeDelay;
+        }
+
+        /**
+         * 一次对冲调用: 首次尝试超过对冲延迟未返回时向另一实例再发一次, 取先成功者, 其余尝试随即取消
+         * 舱壁许可由调用线程和所有未结束的尝试共同持有, 最后一个结束时才释放
+         */
+        private class HedgedCall {
+
+            private final Call call;
+            private final CompletableFuture<Object> result = new CompletableFuture<>();
+            private final List<ServerChoice> attempts = new CopyOnWriteArrayList<>();
+            private final AtomicInteger running = new AtomicInteger();
+            private final AtomicInteger holders = new AtomicInteger(1);
+            private volatile Throwable lastFailure;
+
+            HedgedCall(Call call) {
+                this.call = call;
+            }
+
+            Object invoke() throws Throwable {
+                try {
+                    ServerChoice primary = new ServerChoice(null);
+                    if (!submit(primary)) {
+                        return call.call();
+                    }
+                    try {
+                        return result.get(hedgeDelay(), TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        if (submit(new ServerChoice(primary.getChosen()))) {
+                            hedged.increment();
+                        }
+                    }
+                    return result.get();
+                } catch (ExecutionException e) {
+                    throw unwrap(e);
+                } finally {
+                    for (ServerChoice attempt : attempts) {
+                        attempt.cancel();
+                    }
+                }
+            }
+
+            /**
+             * 调用线程或一次尝试结束, 许可的最后一个持有者释放舱壁
+             */
+            void release() {
+                if (holders.decrementAndGet() == 0) {
+                    bulkhead.release();
+                }
+            }
+
+            private boolean submit(ServerChoice choice) {
+                if (result.isDone()) {
+                    return false;
+                }
+                running.incrementAndGet();
+                holders.incrementAndGet();
+                attempts.add(choice);
+                try {
+                    hedgeExecutor.execute(() -> attempt(choice));
+                    return true;
+                } catch (RejectedExecutionException e) {
+                    attempts.remove(choice);
+                    finish(null);
+                    return false;
+                }
+            }
+
+            private void attempt(ServerChoice choice) {
+                ServerChoice.set(choice);
+                Throwable failure = null;
+                try {
+                    result.complete(call.call());
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    ServerChoice.clear();
+                    finish(failure);
+                }
+            }
+
+            /**
+             * 所有已发出的尝试都失败时以最后一个异常结束
+             */
+            private void finish(Throwable failure) {
+                if (failure != null) {
+                    lastFailure = failure;
+                }
+                if (running.decrementAndGet() == 0 && lastFailure != null) {
+                    result.completeExceptionally(lastFailure);
+                }
+                release();
+            }
+        }
+    }
+}
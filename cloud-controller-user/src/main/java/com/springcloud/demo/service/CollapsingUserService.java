@@ -0,0 +1,163 @@
+package com.springcloud.demo.service;
+
+import com.springcloud.demo.api.UserList;
+import com.springcloud.demo.collapse.BatchCollapser;
+import com.springcloud.demo.collapse.SingleFlight;
+import com.springcloud.demo.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用户服务请求合并层, 位于 Feign UserService 之前
+ *
+ * findAll: 并发的相同查询合并为一次远程调用, 结果分发给所有等待者;
+ * findById / findByName: 窗口内的单点查询合并为一次 /findByIds、/findByNames 批量调用。
+ * 提供方 QPS 随不同请求数增长, 而不是随原始流量增长。
+ * findAll 失败(含熔断、舱壁拒绝)时降级为最近一次成功的结果, 可用 isFallback 判断。
+ *
+ * *Async 方法不阻塞调用线程: 远程调用(含合并后的批量调用)在 user-async 线程池上执行(队列满时 future 以
+ * RejectedExecutionException 结束), 合并后的等待者只挂在 future 上, 不占用任何线程; 合并窗口的调度线程只负责计时。
+ */
+@Service
+public class CollapsingUserService implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CollapsingUserService.class);
+
+    @Resource
+    private UserService userService;
+
+    private final SingleFlight<String, UserList> findAllFlight = new SingleFlight<>();
+    private volatile UserList lastUsers;
+    private final ScheduledExecutorService scheduler;
+    private final BatchCollapser<Integer, User> idCollapser;
+    private final BatchCollapser<String, User> nameCollapser;
+    private final ThreadPoolExecutor asyncExecutor;
+
+    public CollapsingUserService(@Value("${user.collapse.window-micros:2000}") long windowMicros,
+                                 @Value("${user.collapse.max-batch-size:100}") int maxBatchSize,
+                                 @Value("${user.collapse.threads:1}") int threads,
+                                 @Value("${user.async.threads:64}") int asyncThreads,
+                                 @Value("${user.async.queue-capacity:1000}") int asyncQueueCapacity) {
+        this.scheduler = Executors.newScheduledThreadPool(threads);
+        AtomicInteger counter = new AtomicInteger();
+        this.asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(asyncQueueCapacity),
+                runnable -> new Thread(runnable, "user-async-" + counter.incrementAndGet()));
+        this.asyncExecutor.allowCoreThreadTimeOut(true);
+        this.idCollapser = new BatchCollapser<>(this::loadByIds, scheduler, asyncExecutor, windowMicros, maxBatchSize);
+        this.nameCollapser = new BatchCollapser<>(this::loadByNames, scheduler, asyncExecutor, windowMicros, maxBatchSize);
+    }
+
+    public UserList findAll() {
+        try {
+            UserList users = findAllFlight.execute("all", userService::findAll);
+            lastUsers = users;
+            return users;
+        } catch (RuntimeException e) {
+            return fallbackFindAll(e);
+        }
+    }
+
+    public CompletableFuture<UserList> findAllAsync() {
+        return findAllFlight.executeAsync("all", userService::findAll, asyncExecutor)
+                .handle((users, e) -> {
+                    if (e == null) {
+                        lastUsers = users;
+                        return users;
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return fallbackFindAll(cause instanceof RuntimeException
+                            ? (RuntimeException) cause : new IllegalStateException(cause));
+                });
+    }
+
+    public CompletableFuture<Void> saveAsync(User user) {
+        return CompletableFuture.runAsync(() -> userService.save(user), asyncExecutor);
+    }
+
+    public User findById(Integer id) {
+        return idCollapser.get(id);
+    }
+
+    public CompletableFuture<User> findByIdAsync(Integer id) {
+        return idCollapser.getAsync(id);
+    }
+
+    public User findByName(String userName) {
+        return nameCollapser.get(userName);
+    }
+
+    public CompletableFuture<User> findByNameAsync(String userName) {
+        return nameCollapser.getAsync(userName);
+    }
+
+    /**
+     * 结果是否为降级返回的旧数据
+     */
+    public boolean isFallback(UserList users) {
+        return users instanceof FallbackUserList;
+    }
+
+    private UserList fallbackFindAll(RuntimeException e) {
+        UserList cached = lastUsers;
+        if (cached == null) {
+            throw e;
+        }
+        LOGGER.warn("find all users failed, serve last result: {}", e.toString());
+        return new FallbackUserList(cached.getList());
+    }
+
+    private Map<Integer, User> loadByIds(List<Integer> ids) {
+        Map<Integer, User> result = new HashMap<>(ids.size() * 2);
+        for (User user : userService.findByIds(ids)) {
+            result.put(user.getId(), user);
+        }
+        return result;
+    }
+
+    /**
+     * 用户名按不区分大小写匹配(与提供方 MySQL 默认排序规则一致), 请求 "Tom" 时返回的 "tom" 也能对应上
+     */
+    private Map<String, User> loadByNames(List<String> userNames) {
+        Map<String, User> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (User user : userService.findByNames(userNames)) {
+            result.put(user.getUserName(), user);
+        }
+        return result;
+    }
+
+    /**
+     * 降级返回的旧数据, 序列化结果与 UserList 相同
+     */
+    private static class FallbackUserList extends UserList {
+
+        private static final long serialVersionUID = 1L;
+
+        FallbackUserList(List<User> list) {
+            super(list);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        asyncExecutor.shutdown();
+    }
+}
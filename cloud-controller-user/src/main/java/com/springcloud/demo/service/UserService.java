@@ -1,17 +1,9 @@
 package com.springcloud.demo.service;
 
-import com.springcloud.demo.entity.User;
+import com.springcloud.demo.api.UserApi;
+import com.springcloud.demo.config.UserFeignConfiguration;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.RequestMapping;
 
-import java.util.List;
-
-@FeignClient(value = "CLOUD-PROVIDER-USER")
-public interface UserService {
-
-    @RequestMapping("/user/save")
-    void save(User user);
-
-    @RequestMapping("/user/find")
-    String findAll();
+@FeignClient(value = UserApi.SERVICE_NAME, path = UserApi.PATH, configuration = UserFeignConfiguration.class)
+public interface UserService extends UserApi {
 }
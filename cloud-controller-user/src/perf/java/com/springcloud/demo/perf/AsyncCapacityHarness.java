@@ -0,0 +1,302 @@
+package com.springcloud.demo.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.springcloud.demo.UserControllerApplication;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同步 /user/save 与异步 /user/async/save 的容量对比
+ *
+ * 以固定延迟(perf.provider-delay-millis)的桩服务代替用户服务, 在较少的 Tomcat 请求线程下用 perf.concurrency 个客户端
+ * 分别压测两个接口, 同时按固定间隔探测 /actuator/health, 记录吞吐、耗时分位数、健康检查耗时与桩服务的最大并发。
+ * 同步接口受请求线程数限制, 异步接口受 user.async.threads 限制, 健康检查耗时反映请求线程是否被占满。
+ * 运行: 先 mvn install -DskipTests -Dspring-boot.repackage.skip=true 安装其它模块, 再 mvn -Pperf -pl cloud-controller-user compile exec:java
+ * 参数可用 -Dexec.args="--perf.concurrency=100 --server.tomcat.max-threads=50" 覆盖, 报告写入 perf.report-dir。
+ */
+public class AsyncCapacityHarness {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        //HttpURLConnection 默认每个地址只保持 5 个空闲连接, 并发高于此数时会反复建连
+        System.setProperty("http.maxConnections", "512");
+        //桩服务端口先确定下来, 应用启动后按 perf 配置在该端口上启动桩服务(负载均衡器在首次调用时才加载实例列表)
+        int providerPort = freePort();
+        ConfigurableApplicationContext context = null;
+        StubProvider provider = null;
+        try {
+            SpringApplication application = new SpringApplication(UserControllerApplication.class);
+            application.setAdditionalProfiles("perf");
+            List<String> arguments = new ArrayList<>(Arrays.asList(args));
+            arguments.add("--CLOUD-PROVIDER-USER.ribbon.listOfServers=127.0.0.1:" + providerPort);
+            context = application.run(arguments.toArray(new String[0]));
+            CapacitySettings settings = Binder.get(context.getEnvironment()).bind("perf", CapacitySettings.class)
+                    .orElseGet(CapacitySettings::new);
+            provider = new StubProvider(providerPort, settings);
+            run(context, settings, provider);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (provider != null) {
+                provider.stop();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(ConfigurableApplicationContext context, CapacitySettings settings, StubProvider provider)
+            throws Exception {
+        String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("concurrency", settings.getConcurrency());
+        environment.put("providerDelayMillis", settings.getProviderDelayMillis());
+        environment.put("tomcatMaxThreads", context.getEnvironment().getProperty("server.tomcat.max-threads"));
+        environment.put("asyncThreads", context.getEnvironment().getProperty("user.async.threads"));
+        environment.put("java", System.getProperty("java.version"));
+        environment.put("processors", Runtime.getRuntime().availableProcessors());
+
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        scenarios.put("sync-save", scenario(baseUrl, "/user/save", settings, provider));
+        scenarios.put("async-save", scenario(baseUrl, "/user/async/save", settings, provider));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("environment", environment);
+        report.put("scenarios", scenarios);
+        File reportDir = new File(settings.getReportDir());
+        if (!reportDir.isDirectory() && !reportDir.mkdirs()) {
+            throw new IOException("cannot create " + reportDir);
+        }
+        OBJECT_MAPPER.writeValue(new File(reportDir, "async-capacity.json"), report);
+        try (PrintStream out = new PrintStream(new File(reportDir, "async-capacity.txt"), StandardCharsets.UTF_8.name())) {
+            print(scenarios, out);
+        }
+        print(scenarios, System.out);
+        System.out.println("report written to " + new File(reportDir, "async-capacity.json").getAbsolutePath());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> scenarios, PrintStream out) {
+        out.println(String.format("%-12s%8s%8s%10s%10s%10s%10s%14s%14s%14s",
+                "scenario", "ops", "errors", "ops/s", "p50", "p99", "max(ms)", "health p50", "health max", "provider max"));
+        for (Map.Entry<String, Object> entry : scenarios.entrySet()) {
+            Map<String, Object> v = (Map<String, Object>) entry.getValue();
+            out.println(String.format("%-12s%8s%8s%10s%10s%10s%10s%14s%14s%14s", entry.getKey(), v.get("ops"),
+                    v.get("errors"), v.get("throughput"), v.get("p50"), v.get("p99"), v.get("max"),
+                    v.get("healthP50"), v.get("healthMax"), v.get("providerMaxConcurrent")));
+        }
+    }
+
+    /**
+     * 预热后以 concurrency 个客户端发出 ops 次保存, 期间另起一个线程探测健康检查
+     */
+    private static Map<String, Object> scenario(String baseUrl, String path, CapacitySettings settings,
+                                                StubProvider provider) throws InterruptedException {
+        System.out.println("running " + path + " ...");
+        RestTemplate restTemplate = new RestTemplate();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        load(restTemplate, baseUrl + path, headers, 0, settings.getWarmup(), settings.getConcurrency(), null);
+        provider.awaitIdle();
+        provider.resetMax();
+
+        List<Long> healthLatencies = new ArrayList<>();
+        Thread probe = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long begin = System.nanoTime();
+                try {
+                    restTemplate.getForObject(baseUrl + "/actuator/health", String.class);
+                } catch (RuntimeException e) {
+                    //失败的探测同样记录耗时
+                }
+                synchronized (healthLatencies) {
+                    healthLatencies.add(System.nanoTime() - begin);
+                }
+                try {
+                    Thread.sleep(settings.getHealthIntervalMillis());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "perf-health");
+
+        long[] latencies = new long[settings.getOps()];
+        probe.start();
+        long start = System.nanoTime();
+        int errors = load(restTemplate, baseUrl + path, headers, settings.getWarmup(), settings.getOps(),
+                settings.getConcurrency(), latencies);
+        long elapsed = System.nanoTime() - start;
+        probe.interrupt();
+        probe.join();
+        provider.awaitIdle();
+
+        long[] health;
+        synchronized (healthLatencies) {
+            health = new long[healthLatencies.size()];
+            for (int i = 0; i < health.length; i++) {
+                health[i] = healthLatencies.get(i);
+            }
+        }
+        Arrays.sort(latencies);
+        Arrays.sort(health);
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("ops", latencies.length);
+        values.put("errors", errors);
+        values.put("throughput", round(latencies.length / (elapsed / 1e9)));
+        values.put("p50", millis(percentile(latencies, 0.5)));
+        values.put("p99", millis(percentile(latencies, 0.99)));
+        values.put("max", millis(percentile(latencies, 1)));
+        values.put("healthProbes", health.length);
+        values.put("healthP50", millis(percentile(health, 0.5)));
+        values.put("healthMax", millis(percentile(health, 1)));
+        values.put("providerMaxConcurrent", provider.maxConcurrent());
+        return values;
+    }
+
+    /**
+     * 第 i 次请求保存用户 p{i}, 同样的配置每次运行发出的请求相同
+     */
+    private static int load(RestTemplate restTemplate, String url, HttpHeaders headers, int from, int count,
+                            int concurrency, long[] latencies) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>(concurrency);
+        for (int t = 0; t < concurrency; t++) {
+            Thread thread = new Thread(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < count) {
+                    int index = from + i;
+                    String body = "{\"userName\":\"p" + index + "\",\"passWord\":\"pw" + index + "\"}";
+                    long begin = System.nanoTime();
+                    try {
+                        restTemplate.postForObject(url, new HttpEntity<>(body, headers), String.class);
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                    if (latencies != null) {
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                }
+            }, "perf-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return errors.get();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * 用户服务桩: /user/save 固定耗时后返回 {}, 记录同时处理的最大请求数
+     */
+    private static class StubProvider {
+
+        private final HttpServer server;
+        private final ExecutorService executor;
+        private final long delayMillis;
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        StubProvider(int port, CapacitySettings settings) throws IOException {
+            this.delayMillis = settings.getProviderDelayMillis();
+            this.executor = Executors.newFixedThreadPool(settings.getProviderThreads());
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+            this.server.setExecutor(executor);
+            this.server.createContext("/user/save", this::save);
+            this.server.start();
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        private void save(HttpExchange exchange) throws IOException {
+            int current = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(current, Math::max);
+            try {
+                StreamUtils.drain(exchange.getRequestBody());
+                Thread.sleep(delayMillis);
+                exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+                exchange.sendResponseHeaders(200, EMPTY_OBJECT.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(EMPTY_OBJECT);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+                exchange.close();
+            }
+        }
+
+        void awaitIdle() throws InterruptedException {
+            while (concurrent.get() > 0) {
+                Thread.sleep(10);
+            }
+        }
+
+        void resetMax() {
+            maxConcurrent.set(0);
+        }
+
+        int maxConcurrent() {
+            return maxConcurrent.get();
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
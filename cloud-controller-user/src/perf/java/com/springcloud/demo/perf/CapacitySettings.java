@@ -0,0 +1,71 @@
+package com.springcloud.demo.perf;
+
+/**
+ * 容量对比配置, 对应 application-perf.yml 中的 perf
+ */
+public class CapacitySettings {
+
+    private int concurrency = 200;
+    private int warmup = 200;
+    private int ops = 2000;
+    private long providerDelayMillis = 500;
+    private int providerThreads = 400;
+    private long healthIntervalMillis = 100;
+    private String reportDir = "target/perf";
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(int warmup) {
+        this.warmup = warmup;
+    }
+
+    public int getOps() {
+        return ops;
+    }
+
+    public void setOps(int ops) {
+        this.ops = ops;
+    }
+
+    public long getProviderDelayMillis() {
+        return providerDelayMillis;
+    }
+
+    public void setProviderDelayMillis(long providerDelayMillis) {
+        this.providerDelayMillis = providerDelayMillis;
+    }
+
+    public int getProviderThreads() {
+        return providerThreads;
+    }
+
+    public void setProviderThreads(int providerThreads) {
+        this.providerThreads = providerThreads;
+    }
+
+    public long getHealthIntervalMillis() {
+        return healthIntervalMillis;
+    }
+
+    public void setHealthIntervalMillis(long healthIntervalMillis) {
+        this.healthIntervalMillis = healthIntervalMillis;
+    }
+
+    public String getReportDir() {
+        return reportDir;
+    }
+
+    public void setReportDir(String reportDir) {
+        this.reportDir = reportDir;
+    }
+}
@@ -0,0 +1,176 @@
+package com.springcloud.demo.collapse;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchCollapserTest {
+
+    private static final long WINDOW_MICROS = TimeUnit.MILLISECONDS.toMicros(50);
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final ExecutorService batchExecutor = Executors.newCachedThreadPool();
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+        batchExecutor.shutdownNow();
+    }
+
+    @Test
+    public void requestsInOneWindowBecomeOneBatch() throws Exception {
+        BatchCollapser<Integer, String> collapser = new BatchCollapser<>(this::load, scheduler, batchExecutor, WINDOW_MICROS, 100);
+
+        CompletableFuture<String> first = collapser.getAsync(1);
+        CompletableFuture<String> second = collapser.getAsync(2);
+        CompletableFuture<String> duplicate = collapser.getAsync(1);
+        CompletableFuture<String> missing = collapser.getAsync(-1);
+
+        assertEquals("user-1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("user-2", second.get(5, TimeUnit.SECONDS));
+        assertEquals("user-1", duplicate.get(5, TimeUnit.SECONDS));
+        assertNull(missing.get(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList(-1, 1, 2), sorted(batches.get(0)));
+    }
+
+    @Test
+    public void fullBatchIsSentEarlyAndOnlyOnce() throws Exception {
+        long longWindow = TimeUnit.SECONDS.toMicros(1);
+        BatchCollapser<Integer, String> collapser = new BatchCollapser<>(this::load, scheduler, batchExecutor, longWindow, 3);
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            futures.add(collapser.getAsync(i));
+        }
+        //凑满的批次不等窗口结束
+        assertEquals("user-1", futures.get(0).get(500, TimeUnit.MILLISECONDS));
+        assertEquals("user-4", futures.get(3).get(5, TimeUnit.SECONDS));
+
+        //第一个批次的窗口到期后不会再发一次
+        Thread.sleep(TimeUnit.MICROSECONDS.toMillis(longWindow) + 200);
+        assertEquals(2, batches.size());
+        assertEquals(Arrays.asList(1, 2, 3), sorted(batches.get(0)));
+        assertEquals(Arrays.asList(4), batches.get(1));
+    }
+
+    @Test
+    public void batchFailureReachesEveryCaller() throws Exception {
+        IllegalStateException failure = new IllegalStateException("down");
+        BatchCollapser<Integer, String> collapser = new BatchCollapser<>(keys -> {
+            throw failure;
+        }, scheduler, batchExecutor, WINDOW_MICROS, 100);
+
+        CompletableFuture<String> first = collapser.getAsync(1);
+        try {
+            collapser.get(2);
+            fail("expected failure");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        try {
+            first.get(5, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void slowBatchDoesNotDelayNextWindow() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BatchCollapser<Integer, String> collapser = new BatchCollapser<>(ids -> {
+            if (ids.contains(1)) {
+                entered.countDown();
+                await(release);
+            }
+            return load(ids);
+        }, scheduler, batchExecutor, WINDOW_MICROS, 100);
+        try {
+            CompletableFuture<String> slow = collapser.getAsync(1);
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            //第一个批次仍在远程调用中, 唯一的调度线程照常结束下一个窗口
+            assertEquals("user-2", collapser.getAsync(2).get(1, TimeUnit.SECONDS));
+            assertFalse(slow.isDone());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void rejectedBatchFailsItsCallers() throws Exception {
+        RejectedExecutionException rejected = new RejectedExecutionException("queue full");
+        BatchCollapser<Integer, String> collapser = new BatchCollapser<>(this::load, scheduler, command -> {
+            throw rejected;
+        }, WINDOW_MICROS, 100);
+        try {
+            collapser.getAsync(1).get(5, TimeUnit.SECONDS);
+            fail("expected rejection");
+        } catch (ExecutionException e) {
+            assertSame(rejected, e.getCause());
+        }
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    public void caseInsensitiveResultsMatchRequestedKeys() {
+        BatchCollapser<String, String> collapser = new BatchCollapser<>(names -> {
+            Map<String, String> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (String name : names) {
+                result.put(name.toLowerCase(), "user-" + name.toLowerCase());
+            }
+            return result;
+        }, scheduler, batchExecutor, WINDOW_MICROS, 100);
+
+        assertEquals("user-tom", collapser.get("Tom"));
+    }
+
+    private Map<Integer, String> load(List<Integer> ids) {
+        batches.add(ids);
+        Map<Integer, String> result = new HashMap<>(ids.size() * 2);
+        for (Integer id : ids) {
+            if (id > 0) {
+                result.put(id, "user-" + id);
+            }
+        }
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Integer> sorted(List<Integer> ids) {
+        List<Integer> copy = new ArrayList<>(ids);
+        copy.sort(null);
+        return copy;
+    }
+}
@@ -0,0 +1,131 @@
+package com.springcloud.demo.collapse;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = owner.submit(() -> flight.execute("all", () -> {
+                calls.incrementAndGet();
+                entered.countDown();
+                await(release);
+                return "users";
+            }));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            List<String> results = new CopyOnWriteArrayList<>();
+            List<Thread> waiters = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                Thread waiter = new Thread(() -> results.add(flight.execute("all", () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+                waiter.start();
+                waiters.add(waiter);
+            }
+            //所有等待者都挂在同一个 future 上后再放行
+            for (Thread waiter : waiters) {
+                while (waiter.getState() != Thread.State.WAITING) {
+                    Thread.sleep(1);
+                }
+            }
+            assertEquals(1, flight.inFlight());
+            release.countDown();
+            assertEquals("users", first.get(5, TimeUnit.SECONDS));
+            for (Thread waiter : waiters) {
+                waiter.join(5000);
+            }
+            assertEquals(7, results.size());
+            for (String result : results) {
+                assertEquals("users", result);
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, flight.inFlight());
+        } finally {
+            owner.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failureIsSharedAndNotCached() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        IllegalStateException failure = new IllegalStateException("down");
+        try {
+            flight.execute("all", () -> {
+                throw failure;
+            });
+            fail("expected failure");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        assertEquals(0, flight.inFlight());
+        assertEquals("users", flight.execute("all", () -> "users"));
+    }
+
+    @Test
+    public void asyncCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> first = flight.executeAsync("all", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "users";
+            }, executor);
+            CompletableFuture<String> second = flight.executeAsync("all", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }, executor);
+            release.countDown();
+            assertEquals("users", first.get(5, TimeUnit.SECONDS));
+            assertEquals("users", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void rejectedAsyncCallFailsAndIsRemoved() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> rejected = flight.executeAsync("all", () -> "users", command -> {
+            throw new RejectedExecutionException("full");
+        });
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(0, flight.inFlight());
+        assertEquals("users", flight.executeAsync("all", () -> "users", Runnable::run).get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
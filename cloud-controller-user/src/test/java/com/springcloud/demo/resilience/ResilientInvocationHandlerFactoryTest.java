@@ -0,0 +1,140 @@
+package com.springcloud.demo.resilience;
+
+import com.springcloud.demo.config.FeignResilienceProperties;
+import com.springcloud.demo.loadbalance.ServerChoice;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResilientInvocationHandlerFactoryTest {
+
+    interface Api {
+        String find();
+    }
+
+    private final ExecutorService hedgeExecutor = Executors.newFixedThreadPool(4);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @After
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Test
+    public void hedgedCallHoldsPermitUntilLoserFinishesAndCancelsIt() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean loserCancelled = new AtomicBoolean();
+        CountDownLatch loserMayFinish = new CountDownLatch(1);
+        CountDownLatch loserFinished = new CountDownLatch(1);
+        Api api = proxy(() -> {
+            if (attempts.incrementAndGet() > 1) {
+                return "hedged";
+            }
+            try {
+                ServerChoice choice = ServerChoice.current();
+                while (!choice.isCancelled()) {
+                    Thread.sleep(1);
+                }
+                loserCancelled.set(true);
+                loserMayFinish.await(5, TimeUnit.SECONDS);
+                throw new IllegalStateException("canceled");
+            } finally {
+                loserFinished.countDown();
+            }
+        });
+
+        assertEquals("hedged", api.find());
+        assertEquals(2, attempts.get());
+        waitFor(loserCancelled::get);
+        //落败的尝试仍在执行, 许可未释放
+        assertEquals(1, inFlight());
+        try {
+            api.find();
+            fail("expected bulkhead rejection");
+        } catch (BulkheadFullException expected) {
+            //舱壁已满
+        }
+
+        loserMayFinish.countDown();
+        assertTrue(loserFinished.await(5, TimeUnit.SECONDS));
+        waitFor(() -> inFlight() == 0);
+    }
+
+    @Test
+    public void hedgedCallFailsWhenEveryAttemptFails() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Api api = proxy(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(100);
+            }
+            throw new IllegalStateException("down-" + attempts.get());
+        });
+
+        try {
+            api.find();
+            fail("expected failure");
+        } catch (IllegalStateException expected) {
+            //两次尝试都失败
+        }
+        assertEquals(2, attempts.get());
+        waitFor(() -> inFlight() == 0);
+    }
+
+    private Api proxy(Callable call) throws Exception {
+        FeignResilienceProperties properties = new FeignResilienceProperties();
+        FeignResilienceProperties.Policy policy = new FeignResilienceProperties.Policy();
+        policy.setMaxConcurrent(1);
+        policy.setHedge(true);
+        policy.setHedgeMinDelay(20);
+        properties.getMethods().put("find", policy);
+
+        Method find = Api.class.getMethod("find");
+        InvocationHandlerFactory.MethodHandler methodHandler = argv -> call.call();
+        InvocationHandlerFactory delegate = (target, dispatch) ->
+                (proxy, method, args) -> dispatch.get(method).invoke(args);
+        InvocationHandler handler = new ResilientInvocationHandlerFactory(delegate, properties, hedgeExecutor,
+                meterRegistry).create(new Target.HardCodedTarget<>(Api.class, "user", "http://user"),
+                Collections.singletonMap(find, methodHandler));
+        return (Api) Proxy.newProxyInstance(Api.class.getClassLoader(), new Class<?>[]{Api.class}, handler);
+    }
+
+    private int inFlight() {
+        return (int) meterRegistry.get("feign.client.bulkhead.inflight").gauge().value();
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.met()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met in time");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private interface Callable {
+        Object call() throws Throwable;
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+}
@@ -0,0 +1,103 @@
+package com.springcloud.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置, 对应 bootstrap.yml 中的 spring.datasource.routing
+ */
+@Component
+@ConfigurationProperties(prefix = "spring.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /**
+     * 只读从库, 为空时读写都走主库
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 复制延迟超过该秒数的从库不再承接读请求
+     */
+    private long maxLagSeconds = 5;
+
+    /**
+     * 从库复制延迟检测间隔(毫秒)
+     */
+    private long checkIntervalMillis = 1000;
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public long getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+
+    public void setMaxLagSeconds(long maxLagSeconds) {
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public long getCheckIntervalMillis() {
+        return checkIntervalMillis;
+    }
+
+    public void setCheckIntervalMillis(long checkIntervalMillis) {
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    public static class Replica {
+
+        /**
+         * 从库名称, 用作连接池名称与指标标签
+         */
+        private String name;
+
+        private String url;
+
+        /**
+         * 用户名与密码, 未配置时与主库相同
+         */
+        private String username;
+
+        private String password;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
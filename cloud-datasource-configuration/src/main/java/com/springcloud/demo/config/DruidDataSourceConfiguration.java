@@ -0,0 +1,154 @@
+package com.springcloud.demo.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.springcloud.demo.datasource.ReadWriteRoutingDataSource;
+import com.springcloud.demo.datasource.ShardQueryExecutor;
+import com.springcloud.demo.datasource.ShardedDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.jdbc.DataSourcePoolMetrics;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Druid 连接池、读写分离与分片
+ *
+ * 0 号分片主库连接信息取 spring.datasource, 从库取 spring.datasource.routing.replicas,
+ * 其它分片取 spring.datasource.sharding.shards; 连接池参数都取 spring.datasource.druid(见 config/bootstrap.yml)。
+ * 替代 Spring Boot 默认创建的连接池, 容器中唯一的 DataSource 为 ShardedDataSource,
+ * 各连接池不单独注册为 bean。连接池指标, 标签 name 为连接池名称(0 号分片主库为 primary):
+ *      jdbc.connections.active / idle / max / min    连接数
+ *      druid.pool.*                                   等待连接的线程数、次数与耗时等, 见 DruidMetrics
+ *      datasource.replica.lag                         从库复制延迟(秒), -1 为不可用
+ *      datasource.routing.fallbacks                   应读从库却回退到主库的次数, 标签 shard 为分片主库名称
+ */
+@Configuration
+public class DruidDataSourceConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DruidDataSourceConfiguration.class);
+
+    private static final String POOL_PREFIX = "spring.datasource.druid";
+
+    @Bean(destroyMethod = "close")
+    public ShardedDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                        DataSourceRoutingProperties routingProperties,
+                                        ShardingProperties shardingProperties,
+                                        Environment environment) throws SQLException {
+        Binder binder = Binder.get(environment);
+        String username = dataSourceProperties.determineUsername();
+        String password = dataSourceProperties.determinePassword();
+        String driverClassName = dataSourceProperties.determineDriverClassName();
+
+        List<ReadWriteRoutingDataSource> shards = new ArrayList<>();
+        shards.add(createShard(binder, "primary", dataSourceProperties.determineUrl(), username, password,
+                driverClassName, routingProperties.getReplicas(), routingProperties));
+        for (ShardingProperties.Shard shard : shardingProperties.getShards()) {
+            shards.add(createShard(binder,
+                    shard.getName() != null ? shard.getName() : "shard-" + shards.size(),
+                    shard.getUrl(),
+                    shard.getUsername() != null ? shard.getUsername() : username,
+                    shard.getPassword() != null ? shard.getPassword() : password,
+                    driverClassName, shard.getReplicas(), routingProperties));
+        }
+
+        ShardedDataSource dataSource = new ShardedDataSource(shards);
+        dataSource.start(routingProperties.getCheckIntervalMillis());
+        return dataSource;
+    }
+
+    private static ReadWriteRoutingDataSource createShard(Binder binder, String name, String url, String username,
+                                                          String password, String driverClassName,
+                                                          List<DataSourceRoutingProperties.Replica> replicaProperties,
+                                                          DataSourceRoutingProperties routingProperties)
+            throws SQLException {
+        DruidDataSource primary = createPool(binder, name, url, username, password, driverClassName);
+        primary.init();
+
+        List<DruidDataSource> replicas = new ArrayList<>();
+        for (DataSourceRoutingProperties.Replica replica : replicaProperties) {
+            String replicaName = replica.getName() != null ? replica.getName()
+                    : ("primary".equals(name) ? "replica-" : name + "-replica-") + (replicas.size() + 1);
+            DruidDataSource pool = createPool(binder, replicaName, replica.getUrl(),
+                    replica.getUsername() != null ? replica.getUsername() : username,
+                    replica.getPassword() != null ? replica.getPassword() : password,
+                    driverClassName);
+            //从库暂时不可用不影响启动, 由延迟检测在恢复后重新启用
+            try {
+                pool.init();
+            } catch (SQLException e) {
+                LOGGER.warn("init replica [{}] failed: {}", pool.getName(), e.toString());
+            }
+            replicas.add(pool);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, routingProperties.getMaxLagSeconds());
+    }
+
+    private static DruidDataSource createPool(Binder binder, String name, String url, String username,
+                                              String password, String driverClassName) {
+        DruidDataSource pool = new DruidDataSource();
+        binder.bind(POOL_PREFIX, Bindable.ofInstance(pool));
+        pool.setName(name);
+        pool.setUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setDriverClassName(driverClassName);
+        return pool;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ShardQueryExecutor shardQueryExecutor(ShardingProperties shardingProperties) {
+        return new ShardQueryExecutor(shardingProperties.getThreads());
+    }
+
+    @Bean
+    public DataSourcePoolMetadataProvider druidPoolMetadataProvider() {
+        return dataSource -> {
+            DruidDataSource druid = DataSourceUnwrapper.unwrap(dataSource, DruidDataSource.class);
+            return druid != null ? new DruidPoolMetadata(druid) : null;
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceMetrics(ShardedDataSource dataSource,
+                                         ObjectProvider<DataSourcePoolMetadataProvider> metadataProviders) {
+        return registry -> {
+            List<DataSourcePoolMetadataProvider> providers = metadataProviders.orderedStream().collect(Collectors.toList());
+            for (ReadWriteRoutingDataSource shard : dataSource.getShards()) {
+                DruidDataSource primary = shard.getPrimary();
+                new DataSourcePoolMetrics(primary, providers, primary.getName(), Tags.empty()).bindTo(registry);
+                new DruidMetrics(primary, primary.getName()).bindTo(registry);
+                for (ReadWriteRoutingDataSource.Replica replica : shard.getReplicas()) {
+                    new DataSourcePoolMetrics(replica.getDataSource(), providers, replica.getName(), Tags.empty())
+                            .bindTo(registry);
+                    new DruidMetrics(replica.getDataSource(), replica.getName()).bindTo(registry);
+                    Gauge.builder("datasource.replica.lag", replica, ReadWriteRoutingDataSource.Replica::getLagSeconds)
+                            .description("replication lag of the read replica, -1 when unavailable")
+                            .baseUnit("seconds")
+                            .tag("name", replica.getName())
+                            .register(registry);
+                }
+                FunctionCounter.builder("datasource.routing.fallbacks", shard,
+                        ReadWriteRoutingDataSource::getFallbackCount)
+                        .description("reads sent to the primary because no replica was usable")
+                        .tag("shard", primary.getName())
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.springcloud.demo.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Druid 连接池等待与连接生命周期指标, 标签 name 为数据源名称
+ *
+ * druid.pool.wait                 借连接时等待的次数与累计耗时
+ * druid.pool.wait.threads         正在等待连接的线程数
+ * druid.pool.active.peak          活跃连接数峰值
+ * druid.pool.connections.created  / destroyed   物理连接创建与销毁数
+ * druid.pool.errors               获取连接失败数
+ */
+public class DruidMetrics implements MeterBinder {
+
+    private final DruidDataSource dataSource;
+    private final Tags tags;
+
+    public DruidMetrics(DruidDataSource dataSource, String name) {
+        this.dataSource = dataSource;
+        this.tags = Tags.of("name", name);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("druid.pool.wait", dataSource,
+                DruidDataSource::getNotEmptyWaitCount, DruidDataSource::getNotEmptyWaitMillis, TimeUnit.MILLISECONDS)
+                .description("time spent waiting for a pooled connection")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("druid.pool.wait.threads", dataSource, DruidDataSource::getWaitThreadCount)
+                .description("threads waiting for a pooled connection")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("druid.pool.active.peak", dataSource, DruidDataSource::getActivePeak)
+                .description("peak active connections")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("druid.pool.connections.created", dataSource, DruidDataSource::getCreateCount)
+                .description("physical connections created")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("druid.pool.connections.destroyed", dataSource, DruidDataSource::getDestroyCount)
+                .description("physical connections destroyed")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("druid.pool.errors", dataSource, DruidDataSource::getConnectErrorCount)
+                .description("failed attempts to get a pooled connection")
+                .tags(tags)
+                .register(registry);
+    }
+}
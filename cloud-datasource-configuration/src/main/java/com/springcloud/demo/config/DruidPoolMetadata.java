@@ -0,0 +1,44 @@
+package com.springcloud.demo.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.springframework.boot.jdbc.metadata.AbstractDataSourcePoolMetadata;
+
+/**
+ * Druid 连接池状态, 供 actuator 导出 jdbc.connections.* 指标
+ */
+class DruidPoolMetadata extends AbstractDataSourcePoolMetadata<DruidDataSource> {
+
+    DruidPoolMetadata(DruidDataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public Integer getActive() {
+        return getDataSource().getActiveCount();
+    }
+
+    @Override
+    public Integer getIdle() {
+        return getDataSource().getPoolingCount();
+    }
+
+    @Override
+    public Integer getMax() {
+        return getDataSource().getMaxActive();
+    }
+
+    @Override
+    public Integer getMin() {
+        return getDataSource().getMinIdle();
+    }
+
+    @Override
+    public String getValidationQuery() {
+        return getDataSource().getValidationQuery();
+    }
+
+    @Override
+    public Boolean getDefaultAutoCommit() {
+        return getDataSource().isDefaultAutoCommit();
+    }
+}
@@ -0,0 +1,105 @@
+package com.springcloud.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分片配置, 对应 bootstrap.yml 中的 spring.datasource.sharding
+ *
+ * 0 号分片固定为 spring.datasource(及 spring.datasource.routing 中的从库), 这里配置 1 号起的其它分片。
+ */
+@Component
+@ConfigurationProperties(prefix = "spring.datasource.sharding")
+public class ShardingProperties {
+
+    /**
+     * 1 号起的分片, 为空时不分片
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * 跨分片并行查询的线程数
+     */
+    private int threads = 8;
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public static class Shard {
+
+        /**
+         * 分片名称, 用作主库连接池名称与指标标签
+         */
+        private String name;
+
+        private String url;
+
+        /**
+         * 用户名与密码, 未配置时与 0 号分片相同
+         */
+        private String username;
+
+        private String password;
+
+        /**
+         * 该分片的只读从库
+         */
+        private List<DataSourceRoutingProperties.Replica> replicas = new ArrayList<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public List<DataSourceRoutingProperties.Replica> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<DataSourceRoutingProperties.Replica> replicas) {
+            this.replicas = replicas;
+        }
+    }
+}
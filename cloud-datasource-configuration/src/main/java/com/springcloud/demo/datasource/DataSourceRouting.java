@@ -0,0 +1,43 @@
+package com.springcloud.demo.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 当前线程的读写路由
+ *
+ * 有实际事务时按事务的只读标记决定; 没有事务时, 位于 @ReadReplica 方法内或只读的非事务传播(SUPPORTS)时走从库。
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * 当前线程获取的新连接是否可以使用从库
+     */
+    public static boolean isRead() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return Boolean.TRUE.equals(READ.get()) || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 进入只读范围, 返回进入前的状态, 退出时交给 restore
+     */
+    static Boolean enterRead() {
+        Boolean previous = READ.get();
+        READ.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            READ.remove();
+        } else {
+            READ.set(previous);
+        }
+    }
+}
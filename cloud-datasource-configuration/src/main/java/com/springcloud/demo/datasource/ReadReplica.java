@@ -0,0 +1,19 @@
+package com.springcloud.demo.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注的方法(或类中全部方法)内的查询走只读从库
+ *
+ * 在读写事务中调用时不生效, 仍使用事务所在的主库连接;
+ * 只读事务(@Transactional(readOnly = true))无需标注即走从库。
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadReplica {
+}
@@ -0,0 +1,28 @@
+package com.springcloud.demo.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 处理 @ReadReplica, 排在事务拦截器之前
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadReplicaAspect {
+
+    @Around("@annotation(com.springcloud.demo.datasource.ReadReplica) "
+            + "|| @within(com.springcloud.demo.datasource.ReadReplica)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        Boolean previous = DataSourceRouting.enterRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DataSourceRouting.restore(previous);
+        }
+    }
+}
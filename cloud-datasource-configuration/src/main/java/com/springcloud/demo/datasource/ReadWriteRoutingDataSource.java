@@ -0,0 +1,201 @@
+package com.springcloud.demo.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个库(分片)的读写分离数据源
+ *
+ * DataSourceRouting.isRead() 为 true 时轮询选择一个可用且复制延迟不超过 maxLagSeconds 的从库,
+ * 没有合适的从库或从库取连接失败时回退到主库; 其它情况一律使用主库。
+ * 从库延迟由后台线程每 checkIntervalMillis 通过 SHOW SLAVE STATUS 检测一次,
+ * 复制中断(Seconds_Behind_Master 为空)或连接失败的从库在下次检测正常前不再使用。
+ * 由 ShardedDataSource 在执行第一条语句时才来取连接, 此时事务的只读标记已设置好。
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    /**
+     * 不可用从库的延迟值
+     */
+    public static final long UNAVAILABLE = -1;
+
+    private final DruidDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private ScheduledExecutorService checker;
+
+    public ReadWriteRoutingDataSource(DruidDataSource primary, List<DruidDataSource> replicas, long maxLagSeconds) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>(replicas.size());
+        for (DruidDataSource replica : replicas) {
+            list.add(new Replica(replica));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    /**
+     * 启动复制延迟检测, 启动前从库视为可用
+     */
+    public void start(long checkIntervalMillis) {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkReplicas, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.close();
+    }
+
+    /**
+     * 按当前线程的读写路由选择主库或从库
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || !DataSourceRouting.isRead()) {
+            return primary.getConnection();
+        }
+        Replica replica = choose();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markUnavailable(e);
+            }
+        }
+        fallbacks.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    public DruidDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 应读从库却回退到主库的次数
+     */
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    private Replica choose() {
+        int size = replicas.size();
+        int start = next.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isUsable()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SHOW SLAVE STATUS")) {
+                //未配置复制(如开发环境直接指向主库)时没有结果, 视为无延迟
+                if (!rs.next()) {
+                    replica.update(0);
+                    continue;
+                }
+                Number lag = (Number) rs.getObject("Seconds_Behind_Master");
+                replica.update(lag == null ? UNAVAILABLE : lag.longValue());
+            } catch (SQLException | RuntimeException e) {
+                replica.markUnavailable(e);
+            }
+        }
+    }
+
+    /**
+     * 从库及其最近一次检测到的复制延迟(秒), UNAVAILABLE 表示不可用
+     */
+    public class Replica {
+
+        private final DruidDataSource dataSource;
+        private volatile long lagSeconds;
+
+        Replica(DruidDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return dataSource.getName();
+        }
+
+        public DruidDataSource getDataSource() {
+            return dataSource;
+        }
+
+        public long getLagSeconds() {
+            return lagSeconds;
+        }
+
+        /**
+         * 是否可承接读请求
+         */
+        boolean isUsable() {
+            long lag = lagSeconds;
+            return lag != UNAVAILABLE && lag <= maxLagSeconds;
+        }
+
+        void update(long lag) {
+            boolean wasUsable = isUsable();
+            lagSeconds = lag;
+            if (wasUsable && !isUsable()) {
+                LOGGER.warn("replica [{}] removed from reads, lag: {}",
+                        getName(), lag == UNAVAILABLE ? "replication stopped" : lag + "s");
+            } else if (!wasUsable && isUsable()) {
+                LOGGER.info("replica [{}] back to reads, lag: {}s", getName(), lag);
+            }
+        }
+
+        void markUnavailable(Exception e) {
+            if (isUsable()) {
+                LOGGER.warn("replica [{}] removed from reads: {}", getName(), e.toString());
+            }
+            lagSeconds = UNAVAILABLE;
+        }
+    }
+}
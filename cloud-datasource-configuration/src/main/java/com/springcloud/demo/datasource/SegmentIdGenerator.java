@@ -0,0 +1,102 @@
+package com.springcloud.demo.datasource;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.LongSupplier;
+
+/**
+ * 号段方式的全局id生成器, 分片后代替各库的自增id
+ *
+ * 号段保存在 id_segment 表(name, next_id), 每次取 step 个id放在内存中分配, 用完再取下一段;
+ * 多实例之间id不重复但不保证递增。表中没有该名称时以 initialValue 作为起始值。
+ * dataSource 应直接给出存放号段表的主库(如 0 号分片主库), 不经过读写分离与分片路由。
+ */
+public class SegmentIdGenerator {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DataSource dataSource;
+    private final String name;
+    private final int step;
+    private final LongSupplier initialValue;
+
+    private long next;
+    private long end;
+
+    public SegmentIdGenerator(DataSource dataSource, String name, int step, LongSupplier initialValue) {
+        this.dataSource = dataSource;
+        this.name = name;
+        this.step = step;
+        this.initialValue = initialValue;
+    }
+
+    public synchronized long next() {
+        if (next >= end) {
+            end = allocate();
+            next = end - step;
+        }
+        return next++;
+    }
+
+    /**
+     * 占用一个号段, 返回号段的结束值(不含)
+     */
+    private long allocate() {
+        SQLException last = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    Long end = advance(connection);
+                    if (end == null) {
+                        end = initialValue.getAsLong() + step;
+                        insert(connection, end);
+                    }
+                    connection.commit();
+                    return end;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    //并发初始化时另一实例已插入, 重试即可
+                    last = e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                last = e;
+            }
+        }
+        throw new DataAccessResourceFailureException("allocate id segment [" + name + "] failed", last);
+    }
+
+    private Long advance(Connection connection) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "update id_segment set next_id = next_id + ? where name = ?")) {
+            update.setInt(1, step);
+            update.setString(2, name);
+            if (update.executeUpdate() == 0) {
+                return null;
+            }
+        }
+        try (PreparedStatement select = connection.prepareStatement("select next_id from id_segment where name = ?")) {
+            select.setString(1, name);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private void insert(Connection connection, long nextId) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into id_segment(name, next_id) values(?, ?)")) {
+            insert.setString(1, name);
+            insert.setLong(2, nextId);
+            insert.executeUpdate();
+        }
+    }
+}
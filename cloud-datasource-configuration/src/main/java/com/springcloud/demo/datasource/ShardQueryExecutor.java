@@ -0,0 +1,137 @@
+package com.springcloud.demo.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * 跨分片查询: 在全部分片上并行执行同一查询, 再合并结果
+ *
+ * 0 号分片在调用线程上执行, 其余分片交给线程池; 调用线程的读写路由(是否读从库)传递到执行线程。
+ */
+public class ShardQueryExecutor {
+
+    private final ExecutorService executor;
+
+    public ShardQueryExecutor(int threads) {
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shard-query-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 在每个分片上执行 query(参数为分片号), 按分片顺序返回各分片的结果
+     */
+    public <T> List<T> gather(IntFunction<T> query) {
+        int shardCount = ShardRouting.shardCount();
+        if (shardCount == 1) {
+            return Collections.singletonList(ShardRouting.call(0, () -> query.apply(0)));
+        }
+        boolean read = DataSourceRouting.isRead();
+        List<Future<T>> futures = new ArrayList<>(shardCount - 1);
+        try {
+            for (int i = 1; i < shardCount; i++) {
+                int shard = i;
+                futures.add(executor.submit(() -> {
+                    Boolean previous = read ? DataSourceRouting.enterRead() : null;
+                    try {
+                        return ShardRouting.call(shard, () -> query.apply(shard));
+                    } finally {
+                        if (read) {
+                            DataSourceRouting.restore(previous);
+                        }
+                    }
+                }));
+            }
+            List<T> results = new ArrayList<>(shardCount);
+            results.add(ShardRouting.call(0, () -> query.apply(0)));
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 多路归并各分片已按 comparator 排好序的结果
+     */
+    public static <T> List<T> merge(List<List<T>> sortedParts, Comparator<? super T> comparator) {
+        if (sortedParts.size() == 1) {
+            return sortedParts.get(0);
+        }
+        int total = 0;
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(sortedParts.size(),
+                (a, b) -> comparator.compare(a.head, b.head));
+        for (List<T> part : sortedParts) {
+            total += part.size();
+            Iterator<T> iterator = part.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Cursor<>(iterator));
+            }
+        }
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static class Cursor<T> {
+
+        private final Iterator<T> iterator;
+        private T head;
+
+        Cursor(Iterator<T> iterator) {
+            this.iterator = iterator;
+            this.head = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            head = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.springcloud.demo.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程使用的分片
+ *
+ * 未指定时使用 0 号分片(spring.datasource 配置的库); 分片数由 ShardedDataSource 创建时设置。
+ * 分片在取连接时决定, 事务内的连接已固定在一个分片上, 因此事务中不能切换分片, 应在事务外指定分片再开启事务。
+ */
+public final class ShardRouting {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private static volatile int shardCount = 1;
+
+    private ShardRouting() {
+    }
+
+    public static int shardCount() {
+        return shardCount;
+    }
+
+    static void setShardCount(int count) {
+        shardCount = count;
+    }
+
+    /**
+     * 当前线程的分片
+     */
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    /**
+     * 整数分片键所在的分片
+     */
+    public static int shardOf(long key) {
+        return (int) Math.floorMod(key, (long) shardCount);
+    }
+
+    /**
+     * 字符串分片键所在的分片, String.hashCode 的算法是固定的, 各实例结果一致
+     */
+    public static int shardOf(String key) {
+        return Math.floorMod(key.hashCode(), shardCount);
+    }
+
+    /**
+     * 在指定分片上执行
+     */
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 在指定分片上执行
+     */
+    public static void run(int shard, Runnable action) {
+        Integer previous = enter(shard);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static Integer enter(int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("shard " + shard + " out of range, shard count " + shardCount);
+        }
+        if (shard != current() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("cannot switch to shard " + shard + " inside a transaction on shard " + current());
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    private static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
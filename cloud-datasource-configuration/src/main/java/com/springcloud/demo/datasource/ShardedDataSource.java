@@ -0,0 +1,65 @@
+package com.springcloud.demo.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 应用使用的数据源: 按 ShardRouting 选择分片, 再由分片的 ReadWriteRoutingDataSource 选择主库或从库
+ *
+ * 连接延迟到执行第一条语句时才真正获取(LazyConnectionDataSourceProxy),
+ * 此时事务的只读标记与当前线程的分片都已确定。只有一个分片时与不分片相同。
+ */
+public class ShardedDataSource extends LazyConnectionDataSourceProxy {
+
+    private final List<ReadWriteRoutingDataSource> shards;
+
+    public ShardedDataSource(List<ReadWriteRoutingDataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        ShardRouting.setShardCount(shards.size());
+        setTargetDataSource(new Router());
+        //显式给出连接默认值, 避免初始化时为探测默认值去取连接
+        setDefaultAutoCommit(true);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    }
+
+    public List<ReadWriteRoutingDataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * 启动各分片的从库延迟检测
+     */
+    public void start(long checkIntervalMillis) {
+        for (ReadWriteRoutingDataSource shard : shards) {
+            shard.start(checkIntervalMillis);
+        }
+    }
+
+    public void close() {
+        for (ReadWriteRoutingDataSource shard : shards) {
+            shard.close();
+        }
+    }
+
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return shards.get(ShardRouting.current()).getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return shards.get(ShardRouting.current()).getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.springcloud.demo.datasource;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ShardQueryExecutorTest {
+
+    private final ShardQueryExecutor executor = new ShardQueryExecutor(2);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        ShardRouting.setShardCount(1);
+    }
+
+    @Test
+    public void mergeInterleavesSortedParts() {
+        List<List<Integer>> parts = Arrays.asList(
+                Arrays.asList(2, 5, 8),
+                Collections.<Integer>emptyList(),
+                Arrays.asList(1, 3, 9, 10),
+                Arrays.asList(4, 6, 7));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10),
+                ShardQueryExecutor.merge(parts, Comparator.naturalOrder()));
+    }
+
+    @Test
+    public void mergeKeepsEqualKeysFromEveryPart() {
+        List<List<Integer>> parts = Arrays.asList(Arrays.asList(1, 2, 2), Arrays.asList(2, 3));
+        assertEquals(Arrays.asList(1, 2, 2, 2, 3), ShardQueryExecutor.merge(parts, Comparator.naturalOrder()));
+    }
+
+    @Test
+    public void mergeOfSinglePartReturnsIt() {
+        List<Integer> part = Arrays.asList(3, 1, 2);
+        assertSame(part, ShardQueryExecutor.merge(Collections.singletonList(part), Comparator.naturalOrder()));
+    }
+
+    @Test
+    public void gatherRunsEachQueryOnItsShardInShardOrder() {
+        ShardRouting.setShardCount(4);
+        List<String> results = executor.gather(shard -> shard + ":" + ShardRouting.current());
+        assertEquals(Arrays.asList("0:0", "1:1", "2:2", "3:3"), results);
+        assertEquals(0, ShardRouting.current());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void gatherRethrowsShardFailure() {
+        ShardRouting.setShardCount(3);
+        executor.gather(shard -> {
+            if (shard == 2) {
+                throw new IllegalArgumentException("shard 2 down");
+            }
+            return shard;
+        });
+    }
+}
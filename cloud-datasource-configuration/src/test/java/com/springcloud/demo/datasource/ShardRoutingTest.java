@@ -0,0 +1,99 @@
+package com.springcloud.demo.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 两个内存 H2 库作为两个分片
+ */
+public class ShardRoutingTest {
+
+    private ShardedDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() throws SQLException {
+        List<ReadWriteRoutingDataSource> shards = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            DruidDataSource primary = new DruidDataSource();
+            primary.setUrl("jdbc:h2:mem:routing" + i + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+            primary.setUsername("sa");
+            primary.setTestWhileIdle(false);
+            primary.init();
+            shards.add(new ReadWriteRoutingDataSource(primary, Collections.emptyList(), 0));
+        }
+        dataSource = new ShardedDataSource(shards);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        for (int shard = 0; shard < 2; shard++) {
+            ShardRouting.run(shard, () -> {
+                jdbcTemplate.execute("drop table if exists item");
+                jdbcTemplate.execute("create table item(id int primary key)");
+            });
+        }
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+        ShardRouting.setShardCount(1);
+    }
+
+    @Test
+    public void statementsGoToTheCurrentShard() {
+        ShardRouting.run(1, () -> jdbcTemplate.update("insert into item(id) values(?)", 7));
+        assertEquals(0, count(0));
+        assertEquals(1, count(1));
+        assertEquals(0, ShardRouting.current());
+    }
+
+    @Test
+    public void shardKeysSpreadByModulo() {
+        assertEquals(0, ShardRouting.shardOf(4));
+        assertEquals(1, ShardRouting.shardOf(7));
+        assertEquals(1, ShardRouting.shardOf(-1));
+        assertEquals(Math.floorMod("user1".hashCode(), 2), ShardRouting.shardOf("user1"));
+    }
+
+    @Test
+    public void switchingShardInsideTransactionIsRejected() {
+        ShardRouting.run(1, () -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into item(id) values(?)", 1);
+            //同一分片可以重入
+            ShardRouting.run(1, () -> jdbcTemplate.update("insert into item(id) values(?)", 3));
+            try {
+                ShardRouting.run(0, () -> jdbcTemplate.update("insert into item(id) values(?)", 2));
+                fail("switched shard inside a transaction");
+            } catch (IllegalStateException e) {
+                //拒绝后回到事务所在分片
+                assertEquals(1, ShardRouting.current());
+            }
+        }));
+        assertEquals(0, count(0));
+        assertEquals(2, count(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shardOutOfRangeIsRejected() {
+        ShardRouting.run(2, () -> {
+        });
+    }
+
+    private int count(int shard) {
+        return ShardRouting.call(shard, () -> jdbcTemplate.queryForObject("select count(*) from item", Integer.class));
+    }
+}
@@ -1,31 +0,0 @@
-package com.springcloud.demo;
-
-import org.springframework.stereotype.Component;
-
-import javax.servlet.*;
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-
-/**
- * @program: springcloud
- * @ClassName CorsFilter
- * @description: //TODO
- * {|_/}
- * (^ .^)
- * / > @ Miss.Gem
- * @create: 2020-12-22 11:06
- **/
-@Component
-public class CorsFilter implements Filter {
-
-    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
-        HttpServletResponse response = (HttpServletResponse) res;
-        response.setHeader("Access-Control-Allow-Origin", "*");
-        response.setHeader("Access-Control-Allow-Methods", "POST, GET, OPTIONS, DELETE");
-        response.setHeader("Access-Control-Max-Age", "3600");
-        response.setHeader("Access-Control-Allow-Headers", "x-requested-with");
-        chain.doFilter(req, res);
-    }
-    public void init(FilterConfig filterConfig) {}
-    public void destroy() {}
-}
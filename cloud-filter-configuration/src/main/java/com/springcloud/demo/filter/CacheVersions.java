@@ -0,0 +1,154 @@
+package com.springcloud.demo.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存版本号, 数据变更时 bump, ETagFilter 据此生成 ETag
+ *
+ * 版本号保存在 VersionStore(如 Redis), 多实例共享; 本地保存一份副本, 每 refreshMillis 后台刷新一次,
+ * current 只读本地副本, 不访问存储。其它实例的变更最多延迟一个刷新周期可见。
+ * 写入存储失败的变更记在本地, 存储恢复后先补写再接受存储中的版本号。
+ * 容器中没有 VersionStore 时只维护本地版本号。
+ */
+@Component
+public class CacheVersions implements ApplicationContextAware, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheVersions.class);
+
+    private static final Map<String, Version> VERSIONS = new ConcurrentHashMap<>();
+
+    private static volatile VersionStore store;
+
+    private static volatile boolean storeAvailable = true;
+
+    private ScheduledExecutorService refresher;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        ETagProperties properties = applicationContext.getBean(ETagProperties.class);
+        for (String name : properties.getResources().values()) {
+            version(name);
+        }
+        store = applicationContext.getBeanProvider(VersionStore.class).getIfAvailable();
+        if (store == null) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-version-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(CacheVersions::refresh,
+                properties.getRefreshMillis(), properties.getRefreshMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * 本地已知的版本号
+     */
+    public static long current(String name) {
+        return version(name).value.get();
+    }
+
+    /**
+     * 本地有尚未写入存储的变更; 此时本地版本号可能与其它实例发出的 ETag 相同, 不应据 If-None-Match 返回 304
+     */
+    public static boolean isDirty(String name) {
+        return version(name).pending > 0;
+    }
+
+    /**
+     * 数据已变更, 版本加一; 没有 VersionStore 时只更新本地版本,
+     * 无法访问时本地加一并记下未写入的次数, 由后台刷新在存储恢复后补写
+     */
+    public static void bump(String name) {
+        Version version = version(name);
+        VersionStore current = store;
+        if (current == null) {
+            version.value.incrementAndGet();
+            return;
+        }
+        synchronized (version) {
+            version.pending++;
+            try {
+                flush(current, name, version);
+            } catch (RuntimeException e) {
+                version.value.incrementAndGet();
+                LOGGER.warn("bump cache version [{}] in store failed, local only: {}", name, e.toString());
+            }
+        }
+    }
+
+    private static Version version(String name) {
+        return VERSIONS.computeIfAbsent(name, key -> new Version());
+    }
+
+    /**
+     * 把未写入的次数一次加到存储上
+     *
+     * 本地版本号是最后一次同步的存储版本加上未写入的次数, 存储版本只增不减, 补写后的版本号不小于本地版本号,
+     * 不会回到变更前发出过的版本号; 仍取两者较大值, 本地版本号只增不减。
+     */
+    private static void flush(VersionStore current, String name, Version version) {
+        long stored = current.increment(name, version.pending);
+        version.value.accumulateAndGet(stored, Math::max);
+        version.pending = 0;
+    }
+
+    private static void refresh() {
+        for (Map.Entry<String, Version> entry : VERSIONS.entrySet()) {
+            Version version = entry.getValue();
+            try {
+                synchronized (version) {
+                    if (version.pending > 0) {
+                        flush(store, entry.getKey(), version);
+                    } else {
+                        version.value.set(store.get(entry.getKey()));
+                    }
+                }
+                if (!storeAvailable) {
+                    storeAvailable = true;
+                    LOGGER.info("refresh cache versions from store recovered");
+                }
+            } catch (RuntimeException e) {
+                if (storeAvailable) {
+                    storeAvailable = false;
+                    LOGGER.warn("refresh cache versions from store failed: {}", e.toString());
+                }
+                return;
+            }
+        }
+    }
+
+    private static final class Version {
+
+        /**
+         * 未从存储取得版本前以启动时刻为版本号, 重启后不会与重启前发出的 ETag 相同
+         */
+        private final AtomicLong value = new AtomicLong(System.currentTimeMillis());
+
+        /**
+         * 写入存储失败、尚未补写的 bump 次数, 只在持有 Version 锁时修改
+         */
+        private volatile int pending;
+    }
+}
@@ -0,0 +1,240 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.Deflater;
+
+/**
+ * 延迟决定是否压缩的响应
+ *
+ * 响应体先写入池化缓冲区, 超过 minSize 时按内容类型决定压缩或原样输出, 之后直接写出不再缓冲;
+ * 直到结束都没超过 minSize 的响应原样输出并带上 Content-Length。
+ * 应用设置的 Content-Length 先截留, 只在不压缩时生效。
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final CompressionFilter filter;
+    private final ResourcePool<Deflater> deflaters;
+    private final ResourcePool<byte[]> buffers;
+    private final int minSize;
+
+    private byte[] pending;
+    private int pendingCount;
+    private long contentLength = -1;
+    private OutputStream target;
+    private PooledGzipOutputStream gzip;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    CompressingResponseWrapper(HttpServletResponse response, CompressionFilter filter, ResourcePool<Deflater> deflaters,
+                               ResourcePool<byte[]> buffers, int minSize) {
+        super(response);
+        this.filter = filter;
+        this.deflaters = deflaters;
+        this.buffers = buffers;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response");
+        }
+        if (stream == null) {
+            stream = new BodyStream();
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called on this response");
+            }
+            stream = new BodyStream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    /**
+     * flushBuffer 会提交响应, 之后无法再设置 Content-Encoding, 因此先决定输出方式再 flush;
+     * 此时缓冲区不足 minSize, 按原样输出
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null) {
+            decide(false);
+        }
+        target.flush();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        pendingCount = 0;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        pendingCount = 0;
+        contentLength = -1;
+    }
+
+    /**
+     * 写出缓冲区中剩余的数据并结束压缩流, 归还池化资源
+     */
+    void finish() throws IOException {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                if (pendingCount > 0 || contentLength >= 0) {
+                    super.setContentLength(pendingCount);
+                }
+                if (pendingCount > 0) {
+                    target = getResponse().getOutputStream();
+                    target.write(pending, 0, pendingCount);
+                }
+            }
+            if (gzip != null) {
+                gzip.finish();
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 处理出错时丢弃未写出的数据并归还池化资源
+     */
+    void abort() {
+        release();
+    }
+
+    private void release() {
+        if (gzip != null) {
+            gzip.release();
+        }
+        if (pending != null) {
+            buffers.release(pending);
+            pending = null;
+        }
+    }
+
+    /**
+     * 缓冲区放不下时决定输出方式, 并先写出缓冲区中的数据
+     */
+    private void decide() throws IOException {
+        decide(filter.isCompressible(this));
+    }
+
+    private void decide(boolean compress) throws IOException {
+        if (compress) {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            gzip = new PooledGzipOutputStream(getResponse().getOutputStream(), deflaters, buffers);
+            target = gzip;
+        } else {
+            if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            target = getResponse().getOutputStream();
+        }
+        if (pendingCount > 0) {
+            target.write(pending, 0, pendingCount);
+            pendingCount = 0;
+        }
+    }
+
+    private class BodyStream extends ServletOutputStream {
+
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target != null) {
+                target.write(b, off, len);
+                return;
+            }
+            if (pending == null) {
+                pending = buffers.acquire();
+            }
+            if (pendingCount + len <= minSize && pendingCount + len <= pending.length) {
+                System.arraycopy(b, off, pending, pendingCount, len);
+                pendingCount += len;
+                return;
+            }
+            decide();
+            target.write(b, off, len);
+        }
+
+        /**
+         * 未决定输出方式前忽略 flush(消息转换器写完 JSON 后总会 flush), 小响应不因此被压缩
+         */
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("non-blocking write is not supported by compressing response");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.annotation.Resource;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * gzip 响应压缩, 配置见 filter.compression(默认关闭)
+ *
+ * 只压缩客户端接受 gzip、内容类型可压缩、未自带 Content-Encoding 且超过 minSize 的响应;
+ * Deflater 与缓冲区池化复用; 异步请求在异步派发结束时完成压缩(需注册 ASYNC 派发, 见 FilterRegistrationConfiguration)。
+ * 未提供 brotli: JDK 没有 brotli 编码器, 只能依赖 native 库。
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+
+    @Resource
+    private CompressionProperties properties;
+
+    private ResourcePool<Deflater> deflaters;
+    private ResourcePool<byte[]> buffers;
+
+    @Override
+    protected void initFilterBean() {
+        int bufferSize = Math.max(properties.getBufferSize(), properties.getMinSize());
+        deflaters = new ResourcePool<>(properties.getPoolSize(),
+                () -> new Deflater(properties.getLevel(), true), Deflater::end);
+        buffers = new ResourcePool<>(properties.getPoolSize(), () -> new byte[bufferSize], buffer -> { });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "HEAD".equals(request.getMethod());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponseWrapper wrapper = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+        if (wrapper == null) {
+            if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                chain.doFilter(request, response);
+                return;
+            }
+            wrapper = new CompressingResponseWrapper(response, this, deflaters, buffers, properties.getMinSize());
+        }
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            wrapper.abort();
+            throw e;
+        }
+        if (!isAsyncStarted(request)) {
+            wrapper.finish();
+        }
+    }
+
+    boolean isCompressible(HttpServletResponse response) {
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        String contentType = response.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        for (String mimeType : properties.getMimeTypes()) {
+            if (contentType.startsWith(mimeType)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            int semicolon = coding.indexOf(';');
+            String name = (semicolon < 0 ? coding : coding.substring(0, semicolon)).trim();
+            if (!"gzip".equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            if (semicolon < 0) {
+                return true;
+            }
+            String param = coding.substring(semicolon + 1).trim();
+            try {
+                return !param.startsWith("q=") || Double.parseDouble(param.substring(2)) > 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
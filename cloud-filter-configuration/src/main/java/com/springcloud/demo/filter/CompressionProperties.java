@@ -0,0 +1,93 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 响应压缩配置, 对应 application.yml 中的 filter.compression
+ */
+@Component
+@ConfigurationProperties(prefix = "filter.compression")
+public class CompressionProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * 响应体达到该字节数才压缩
+     */
+    private int minSize = 2048;
+
+    /**
+     * 可压缩的内容类型(前缀匹配)
+     */
+    private List<String> mimeTypes = new ArrayList<>(Arrays.asList(
+            "application/json", "application/x-jackson-smile", "text/html", "text/plain", "text/css",
+            "application/javascript", "application/xml"));
+
+    /**
+     * 压缩级别 1-9, 越大越省带宽越耗 CPU
+     */
+    private int level = 6;
+
+    /**
+     * 压缩输出缓冲区大小(字节)
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * Deflater 与缓冲区池中最多保留的空闲个数
+     */
+    private int poolSize = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+}
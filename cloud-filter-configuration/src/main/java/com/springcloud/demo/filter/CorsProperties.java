@@ -0,0 +1,101 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 跨域配置, 对应 application.yml 中的 filter.cors
+ */
+@Component
+@ConfigurationProperties(prefix = "filter.cors")
+public class CorsProperties {
+
+    /**
+     * 允许的来源, 如 https://www.example.com; * 表示任意来源
+     */
+    private List<String> allowedOrigins = new ArrayList<>(Arrays.asList("*"));
+
+    private List<String> allowedMethods = new ArrayList<>(Arrays.asList("POST", "GET", "OPTIONS", "DELETE"));
+
+    private List<String> allowedHeaders = new ArrayList<>(Arrays.asList("x-requested-with", "content-type", "if-none-match"));
+
+    /**
+     * 允许浏览器读取的响应头
+     */
+    private List<String> exposedHeaders = new ArrayList<>(Arrays.asList("ETag"));
+
+    /**
+     * 是否允许携带 cookie, 为 true 时 * 来源改为回显请求来源
+     */
+    private boolean allowCredentials = false;
+
+    /**
+     * 预检结果缓存时间(秒)
+     */
+    private long maxAge = 3600;
+
+    /**
+     * 按来源缓存的响应头组数上限, 超出后不再缓存新来源
+     */
+    private int originCacheSize = 1024;
+
+    public List<String> getAllowedOrigins() {
+        return allowedOrigins;
+    }
+
+    public void setAllowedOrigins(List<String> allowedOrigins) {
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    public List<String> getAllowedMethods() {
+        return allowedMethods;
+    }
+
+    public void setAllowedMethods(List<String> allowedMethods) {
+        this.allowedMethods = allowedMethods;
+    }
+
+    public List<String> getAllowedHeaders() {
+        return allowedHeaders;
+    }
+
+    public void setAllowedHeaders(List<String> allowedHeaders) {
+        this.allowedHeaders = allowedHeaders;
+    }
+
+    public List<String> getExposedHeaders() {
+        return exposedHeaders;
+    }
+
+    public void setExposedHeaders(List<String> exposedHeaders) {
+        this.exposedHeaders = exposedHeaders;
+    }
+
+    public boolean isAllowCredentials() {
+        return allowCredentials;
+    }
+
+    public void setAllowCredentials(boolean allowCredentials) {
+        this.allowCredentials = allowCredentials;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public int getOriginCacheSize() {
+        return originCacheSize;
+    }
+
+    public void setOriginCacheSize(int originCacheSize) {
+        this.originCacheSize = originCacheSize;
+    }
+}
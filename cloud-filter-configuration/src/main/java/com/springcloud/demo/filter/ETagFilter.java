@@ -0,0 +1,94 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.Resource;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 基于缓存版本号的条件 GET
+ *
+ * ETag 为 W/"<版本名称>-<版本号>-<Accept 摘要>", 不同内容类型(JSON / Smile)的表示互不混用;
+ * If-None-Match 命中时直接返回 304, 不进入控制器, 不访问 Redis 与数据库; 本地有尚未写入存储的变更时不据此返回 304;
+ * 未命中时交给后续处理, 只有当前版本的 2xx 响应才在提交前带上 ETag 与 Cache-Control(见 ETagResponseWrapper),
+ * 控制器返回降级的旧数据时设置 NOT_FRESH_ATTRIBUTE, 该响应不带 ETag。
+ * 版本号先于响应内容读取, 数据在两者之间变更时客户端下次请求会因 ETag 不匹配而重新获取, 不会缓存旧数据。
+ * 异步请求的响应在 ASYNC 派发中写出, 沿用同一个响应包装, 写出时再决定。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ETagFilter extends OncePerRequestFilter {
+
+    /**
+     * 响应内容不是当前版本(如降级返回的旧结果)时由控制器设置, 不带 ETag
+     */
+    public static final String NOT_FRESH_ATTRIBUTE = ETagFilter.class.getName() + ".NOT_FRESH";
+
+    @Resource
+    private ETagProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method))
+                || !properties.getResources().containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String name = properties.getResources().get(path(request));
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String etag = "W/\"" + name + "-" + CacheVersions.current(name)
+                + "-" + Integer.toHexString(accept == null ? 0 : accept.hashCode()) + "\"";
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!CacheVersions.isDirty(name) && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            request.setAttribute(MetricsFilter.ROUTE_ATTRIBUTE, path(request));
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, properties.getCacheControl());
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        ETagResponseWrapper wrapper = new ETagResponseWrapper(request, response, etag, properties.getCacheControl());
+        chain.doFilter(request, wrapper);
+        if (!isAsyncStarted(request)) {
+            wrapper.finish();
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * If-None-Match 按弱比较匹配, 支持多个值与 *
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate)) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ETag 过滤器配置, 对应 application.yml 中的 filter.etag
+ */
+@Component
+@ConfigurationProperties(prefix = "filter.etag")
+public class ETagProperties {
+
+    /**
+     * 请求路径 -> 缓存版本名称(见 CacheVersions), 只对这些路径的 GET/HEAD 生效
+     */
+    private final Map<String, String> resources = new LinkedHashMap<>();
+
+    /**
+     * 响应的 Cache-Control
+     */
+    private String cacheControl = "private, no-cache";
+
+    /**
+     * 本地版本号从 Redis 刷新的间隔(毫秒)
+     */
+    private long refreshMillis = 1000;
+
+    public Map<String, String> getResources() {
+        return resources;
+    }
+
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    public void setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+    }
+
+    public long getRefreshMillis() {
+        return refreshMillis;
+    }
+
+    public void setRefreshMillis(long refreshMillis) {
+        this.refreshMillis = refreshMillis;
+    }
+}
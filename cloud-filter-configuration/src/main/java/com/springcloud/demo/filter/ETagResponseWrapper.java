@@ -0,0 +1,180 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * 在响应提交前决定是否带上 ETag 的响应
+ *
+ * 第一次写出、flush 或处理结束时检查: 状态码为 2xx 且请求没有 ETagFilter.NOT_FRESH_ATTRIBUTE 时
+ * 才设置 ETag 与 Cache-Control, 错误响应与降级返回的旧数据不会被客户端当作当前版本缓存。
+ * 不缓冲, 写入直接交给原响应。
+ */
+class ETagResponseWrapper extends HttpServletResponseWrapper {
+
+    private final HttpServletRequest request;
+    private final String etag;
+    private final String cacheControl;
+
+    private boolean decided;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    ETagResponseWrapper(HttpServletRequest request, HttpServletResponse response, String etag, String cacheControl) {
+        super(response);
+        this.request = request;
+        this.etag = etag;
+        this.cacheControl = cacheControl;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (stream == null) {
+            stream = new DecidingStream(super.getOutputStream());
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new DecidingWriter(super.getWriter()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        decide();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        decided = true;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        decided = true;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        decided = true;
+        super.sendRedirect(location);
+    }
+
+    /**
+     * 处理结束时调用, 没有响应体的请求在这里决定
+     */
+    void finish() {
+        if (!isCommitted()) {
+            decide();
+        }
+    }
+
+    private void decide() {
+        if (decided) {
+            return;
+        }
+        decided = true;
+        int status = getStatus();
+        if (status >= 200 && status < 300 && request.getAttribute(ETagFilter.NOT_FRESH_ATTRIBUTE) == null) {
+            setHeader(HttpHeaders.ETAG, etag);
+            setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+    }
+
+    private class DecidingStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        DecidingStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            decide();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            decide();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            decide();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            decide();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+
+    private class DecidingWriter extends Writer {
+
+        private final Writer delegate;
+
+        DecidingWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            decide();
+            delegate.write(c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            decide();
+            delegate.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            decide();
+            delegate.write(str, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            decide();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            decide();
+            delegate.close();
+        }
+    }
+}
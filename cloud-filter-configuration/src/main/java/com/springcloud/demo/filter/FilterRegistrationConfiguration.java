@@ -0,0 +1,71 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.Resource;
+import javax.servlet.DispatcherType;
+
+/**
+ * 需要指定派发类型的过滤器注册(@Component 过滤器默认只处理 REQUEST 派发), 耗时统计的路由拦截器, 以及缓存版本号的存储
+ */
+@Configuration
+public class FilterRegistrationConfiguration {
+
+    /**
+     * 耗时统计排在 CORS 之后、ETag 之前, 304 也计入; 异步请求由其自身的 AsyncListener 记录, 只需 REQUEST 派发
+     */
+    @Bean
+    public FilterRegistrationBean<MetricsFilter> metricsFilterRegistration(MetricsFilter filter) {
+        FilterRegistrationBean<MetricsFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setDispatcherTypes(DispatcherType.REQUEST);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    /**
+     * 压缩过滤器还要处理 ASYNC 派发, 异步接口写完响应后才能结束 gzip 流
+     */
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilterRegistration(CompressionFilter filter) {
+        FilterRegistrationBean<CompressionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    /**
+     * 按路由统计并发数需要在处理器匹配之后进行
+     */
+    @Configuration
+    static class MetricsInterceptorConfiguration implements WebMvcConfigurer {
+
+        @Resource
+        private MetricsFilter metricsFilter;
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(metricsFilter.routeInterceptor());
+        }
+    }
+
+    /**
+     * cloud-provider-redis 是可选依赖, 引入时缓存版本号保存在 Redis 中, 否则 CacheVersions 只维护本地版本号
+     */
+    @Configuration
+    @ConditionalOnClass(name = "com.springcloud.demo.util.RedisVersionUtil")
+    static class RedisVersionStoreConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(VersionStore.class)
+        public VersionStore redisVersionStore() {
+            return new RedisVersionStore();
+        }
+    }
+}
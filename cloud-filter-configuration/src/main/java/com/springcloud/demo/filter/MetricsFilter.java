@@ -0,0 +1,271 @@
+package com.springcloud.demo.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.Resource;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按路由统计接口耗时、吞吐、并发数与请求/响应体大小, 配置见 filter.metrics
+ *
+ * http.server.route.requests       耗时(含分位数), 标签 service / route / method / status / outcome
+ * http.server.route.inflight       各路由正在处理的请求数
+ * http.server.route.request.size   请求体字节数(按 Content-Length)
+ * http.server.route.response.size  响应体实际写出的字节数(位于压缩过滤器之外, 即压缩后大小)
+ *
+ * route 取 Spring MVC 匹配到的路径模板, 未匹配到处理器的请求归为 NOT_FOUND / UNKNOWN, 不用原始 URI;
+ * 在控制器之前就返回的过滤器(如 ETagFilter 的 304)通过 ROUTE_ATTRIBUTE 指明路由。
+ * 路由要到 MVC 匹配处理器后才知道, 并发数由 routeInterceptor() 在进入处理器前按路由累加, 记录时扣减;
+ * 没有到达处理器的请求(404、304 等)不计入并发数。
+ * 计量器按路由缓存, 热路径上只有一次 map 查找与计时记录; 异步请求在异步处理完成时记录。
+ * 容器中没有 MeterRegistry(未引入 actuator)时不做统计。
+ */
+@Component
+public class MetricsFilter extends OncePerRequestFilter {
+
+    /**
+     * 未经过 MVC 处理器的请求可通过该请求属性指明路由
+     */
+    public static final String ROUTE_ATTRIBUTE = MetricsFilter.class.getName() + ".ROUTE";
+
+    /**
+     * 请求经过本过滤器后置为 PENDING, 进入处理器时换成所属路由的计量器
+     */
+    private static final String IN_FLIGHT_ATTRIBUTE = MetricsFilter.class.getName() + ".IN_FLIGHT";
+
+    private static final Object PENDING = new Object();
+
+    private static final String OTHER = "OTHER";
+
+    @Resource
+    private MetricsProperties properties;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> registryProvider;
+
+    @Value("${spring.application.name:application}")
+    private String service;
+
+    private MeterRegistry registry;
+    private final ConcurrentMap<String, RouteMeters> routes = new ConcurrentHashMap<>();
+    private final HandlerInterceptor routeInterceptor = new RouteInterceptor();
+
+    @Override
+    protected void initFilterBean() {
+        registry = registryProvider.getIfAvailable();
+    }
+
+    /**
+     * 需注册到 MVC 的拦截器, 在路由确定后累加该路由的并发数
+     */
+    public HandlerInterceptor routeInterceptor() {
+        return routeInterceptor;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return registry == null || !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        request.setAttribute(IN_FLIGHT_ATTRIBUTE, PENDING);
+        CountingResponseWrapper counting = properties.isPayloadSizes() ? new CountingResponseWrapper(response) : null;
+        boolean recorded = false;
+        try {
+            chain.doFilter(request, counting != null ? counting : response);
+            if (isAsyncStarted(request)) {
+                request.getAsyncContext().addListener(new CompletionListener(request, response, counting, start));
+                recorded = true;
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            record(request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, counting, start);
+            recorded = true;
+            throw e;
+        } finally {
+            if (!recorded) {
+                record(request, response.getStatus(), counting, start);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, CountingResponseWrapper counting, long start) {
+        long elapsed = System.nanoTime() - start;
+        Object started = request.getAttribute(IN_FLIGHT_ATTRIBUTE);
+        request.removeAttribute(IN_FLIGHT_ATTRIBUTE);
+        RouteMeters meters;
+        if (started instanceof RouteMeters) {
+            meters = (RouteMeters) started;
+            meters.inFlight.decrementAndGet();
+        } else {
+            meters = meters(route(request, status));
+        }
+        meters.timer(request.getMethod(), status).record(elapsed, TimeUnit.NANOSECONDS);
+        if (counting != null) {
+            long requestSize = request.getContentLengthLong();
+            if (requestSize >= 0) {
+                meters.requestSize.record(requestSize);
+            }
+            meters.responseSize.record(counting.getCount());
+        }
+    }
+
+    private static String route(HttpServletRequest request, int status) {
+        Object route = request.getAttribute(ROUTE_ATTRIBUTE);
+        if (route == null) {
+            route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        }
+        if (route != null) {
+            return route.toString();
+        }
+        return status == HttpServletResponse.SC_NOT_FOUND ? "NOT_FOUND" : "UNKNOWN";
+    }
+
+    private RouteMeters meters(String route) {
+        RouteMeters meters = routes.get(route);
+        if (meters != null) {
+            return meters;
+        }
+        if (routes.size() >= properties.getMaxRoutes()) {
+            route = OTHER;
+        }
+        return routes.computeIfAbsent(route, RouteMeters::new);
+    }
+
+    private static String outcome(int status) {
+        if (status < 200) {
+            return "INFORMATIONAL";
+        }
+        if (status < 300) {
+            return "SUCCESS";
+        }
+        if (status < 400) {
+            return "REDIRECTION";
+        }
+        return status < 500 ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+
+    /**
+     * 单个路由的计量器, 耗时按 method + status 再细分
+     */
+    private class RouteMeters {
+
+        private final String route;
+        private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final DistributionSummary requestSize;
+        private final DistributionSummary responseSize;
+
+        RouteMeters(String route) {
+            this.route = route;
+            Gauge.builder("http.server.route.inflight", inFlight, AtomicInteger::get)
+                    .description("in-flight http requests by route")
+                    .tags("service", service, "route", route)
+                    .register(registry);
+            this.requestSize = summary("http.server.route.request.size", "http request body size by route");
+            this.responseSize = summary("http.server.route.response.size", "http response body size by route");
+        }
+
+        Timer timer(String method, int status) {
+            String key = method + status;
+            Timer timer = timers.get(key);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(key, k -> Timer.builder("http.server.route.requests")
+                        .description("http request latency by route")
+                        .tags("service", service, "route", route, "method", method,
+                                "status", String.valueOf(status), "outcome", outcome(status))
+                        .publishPercentiles(percentiles())
+                        .publishPercentileHistogram(properties.isPercentileHistogram())
+                        .register(registry));
+            }
+            return timer;
+        }
+
+        private DistributionSummary summary(String name, String description) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .baseUnit("bytes")
+                    .tags("service", service, "route", route)
+                    .publishPercentiles(percentiles())
+                    .register(registry);
+        }
+
+        private double[] percentiles() {
+            return properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        }
+    }
+
+    /**
+     * 处理器匹配后路由已确定; 异步请求的 ASYNC 派发会再次经过拦截器, 只在首次进入时累加
+     */
+    private class RouteInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (request.getAttribute(IN_FLIGHT_ATTRIBUTE) == PENDING) {
+                RouteMeters meters = meters(route(request, HttpServletResponse.SC_OK));
+                meters.inFlight.incrementAndGet();
+                request.setAttribute(IN_FLIGHT_ATTRIBUTE, meters);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 异步请求在处理完成(含超时、出错后的完成)时记录
+     */
+    private class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final CountingResponseWrapper counting;
+        private final long start;
+
+        CompletionListener(HttpServletRequest request, HttpServletResponse response,
+                           CountingResponseWrapper counting, long start) {
+            this.request = request;
+            this.response = response;
+            this.counting = counting;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, response.getStatus(), counting, start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
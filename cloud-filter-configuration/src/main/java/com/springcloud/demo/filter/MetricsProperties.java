@@ -0,0 +1,78 @@
+package com.springcloud.demo.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 接口耗时统计配置, 对应 application.yml 中的 filter.metrics
+ */
+@Component
+@ConfigurationProperties(prefix = "filter.metrics")
+public class MetricsProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 客户端计算并发布的分位数
+     */
+    private List<Double> percentiles = new ArrayList<>(Arrays.asList(0.5, 0.95, 0.99));
+
+    /**
+     * 是否发布直方图桶(供 Prometheus 等服务端聚合分位数)
+     */
+    private boolean percentileHistogram = false;
+
+    /**
+     * 是否统计请求/响应体大小
+     */
+    private boolean payloadSizes = true;
+
+    /**
+     * 最多登记的路由数, 超出后归入 OTHER, 防止标签数量失控
+     */
+    private int maxRoutes = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    public boolean isPayloadSizes() {
+        return payloadSizes;
+    }
+
+    public void setPayloadSizes(boolean payloadSizes) {
+        this.payloadSizes = payloadSizes;
+    }
+
+    public int getMaxRoutes() {
+        return maxRoutes;
+    }
+
+    public void setMaxRoutes(int maxRoutes) {
+        this.maxRoutes = maxRoutes;
+    }
+}
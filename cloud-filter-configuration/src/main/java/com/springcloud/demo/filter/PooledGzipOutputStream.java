@@ -0,0 +1,105 @@
+package com.springcloud.demo.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * gzip 输出流, Deflater(含约 256KB 的 native 状态)与输出缓冲区取自对象池, 不随每个响应新建
+ *
+ * flush 使用 SYNC_FLUSH, 已写入的数据可以立即被客户端解压, 适合流式输出;
+ * finish 写入 gzip 尾部并归还池化资源, 不关闭底层流。
+ */
+public class PooledGzipOutputStream extends OutputStream {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final ResourcePool<Deflater> deflaters;
+    private final ResourcePool<byte[]> buffers;
+    private final CRC32 crc = new CRC32();
+    private final byte[] single = new byte[1];
+    private Deflater deflater;
+    private byte[] buffer;
+
+    public PooledGzipOutputStream(OutputStream out, ResourcePool<Deflater> deflaters, ResourcePool<byte[]> buffers)
+            throws IOException {
+        this.out = out;
+        this.deflaters = deflaters;
+        this.buffers = buffers;
+        this.deflater = deflaters.acquire();
+        this.buffer = buffers.acquire();
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        while (deflate(Deflater.SYNC_FLUSH) == buffer.length) {
+            //缓冲区写满说明可能还有输出, 继续
+        }
+        out.flush();
+    }
+
+    /**
+     * 写完剩余数据与 gzip 尾部(CRC32 与原始长度, 小端), 并归还池化资源
+     */
+    public void finish() throws IOException {
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            writeInt((int) crc.getValue());
+            writeInt((int) deflater.getBytesRead());
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 不再输出, 只归还池化资源
+     */
+    public void release() {
+        if (deflater != null) {
+            deflater.reset();
+            deflaters.release(deflater);
+            buffers.release(buffer);
+            deflater = null;
+            buffer = null;
+        }
+    }
+
+    private int deflate(int flush) throws IOException {
+        int count = deflater.deflate(buffer, 0, buffer.length, flush);
+        if (count > 0) {
+            out.write(buffer, 0, count);
+        }
+        return count;
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
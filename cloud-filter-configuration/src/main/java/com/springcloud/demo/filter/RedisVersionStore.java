@@ -0,0 +1,19 @@
+package com.springcloud.demo.filter;
+
+import com.springcloud.demo.util.RedisVersionUtil;
+
+/**
+ * 保存在 Redis 中的版本号, 见 RedisVersionUtil
+ */
+class RedisVersionStore implements VersionStore {
+
+    @Override
+    public long get(String name) {
+        return RedisVersionUtil.get(name);
+    }
+
+    @Override
+    public long increment(String name, long delta) {
+        return RedisVersionUtil.increment(name, delta);
+    }
+}
@@ -0,0 +1,34 @@
+package com.springcloud.demo.filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 简单对象池: 空闲对象最多保留 maxIdle 个, 池空时新建, 池满时丢弃(交给 disposer 释放)
+ * @param <T> 池化对象
+ */
+public class ResourcePool<T> {
+
+    private final BlockingQueue<T> idle;
+    private final Supplier<T> factory;
+    private final Consumer<T> disposer;
+
+    public ResourcePool(int maxIdle, Supplier<T> factory, Consumer<T> disposer) {
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+        this.factory = factory;
+        this.disposer = disposer;
+    }
+
+    public T acquire() {
+        T resource = idle.poll();
+        return resource != null ? resource : factory.get();
+    }
+
+    public void release(T resource) {
+        if (!idle.offer(resource)) {
+            disposer.accept(resource);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.springcloud.demo.filter;
+
+/**
+ * 缓存版本号的共享存储, 多个实例通过它看到同一个版本号
+ *
+ * 容器中没有实现时 CacheVersions 只在本地维护版本号; 引入 cloud-provider-redis 时使用 RedisVersionStore。
+ */
+public interface VersionStore {
+
+    /**
+     * 当前版本
+     */
+    long get(String name);
+
+    /**
+     * 版本增加 delta, 返回增加后的版本号
+     */
+    long increment(String name, long delta);
+}
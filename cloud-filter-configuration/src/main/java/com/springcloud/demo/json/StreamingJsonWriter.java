@@ -0,0 +1,79 @@
+package com.springcloud.demo.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 流式写出 {"<field>":[item, item, ...]} 形式的 JSON
+ *
+ * 元素逐个序列化到输出流, 每 flushEvery 个元素 flush 一次, 大列表不必先在堆中拼成完整的集合或字符串;
+ * 结构与把 List 放在同名字段中一次性序列化的结果相同, 调用方无需区分。
+ * 全部元素写完后调用 finish 写出结尾的 ]}; 未调用 finish 就 close(如读库中途失败)时不补结尾,
+ * 客户端收到的是无法解析的 JSON, 不会把截断的列表当作完整结果。两者都不关闭底层输出流。
+ */
+public class StreamingJsonWriter implements Closeable {
+
+    private static final int DEFAULT_FLUSH_EVERY = 100;
+
+    private final JsonGenerator generator;
+    private final int flushEvery;
+    private int count;
+    private boolean finished;
+
+    private StreamingJsonWriter(JsonGenerator generator, int flushEvery) {
+        this.generator = generator;
+        this.flushEvery = flushEvery;
+    }
+
+    public static StreamingJsonWriter open(OutputStream out, ObjectMapper objectMapper, String field) throws IOException {
+        return open(out, objectMapper, field, DEFAULT_FLUSH_EVERY);
+    }
+
+    public static StreamingJsonWriter open(OutputStream out, ObjectMapper objectMapper, String field, int flushEvery)
+            throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart(field);
+        return new StreamingJsonWriter(generator, flushEvery);
+    }
+
+    public void write(Object item) throws IOException {
+        generator.writeObject(item);
+        if (++count % flushEvery == 0) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * 已写出的元素个数
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 列表已完整写出, 结束 JSON
+     */
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        finished = true;
+        generator.close();
+    }
+
+    /**
+     * 未 finish 时直接关闭, 不补写结尾
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            generator.close();
+        }
+    }
+}
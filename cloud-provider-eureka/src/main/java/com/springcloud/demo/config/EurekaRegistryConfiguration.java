@@ -0,0 +1,68 @@
+package com.springcloud.demo.config;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.cluster.PeerEurekaNodes;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.resources.ServerCodecs;
+import com.springcloud.demo.registry.EurekaInstanceRegistry;
+import com.springcloud.demo.registry.EurekaRegistryMetrics;
+import com.springcloud.demo.registry.MeteredPeerEurekaNodes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.cloud.netflix.eureka.server.ReplicationClientAdditionalFilters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 注册表、集群节点与指标
+ *
+ * EurekaServerAutoConfiguration 中的 peerAwareInstanceRegistry 没有 @ConditionalOnMissingBean,
+ * 在自动配置加载后把该 bean 定义替换为 EurekaInstanceRegistry, bean 名称与类型不变;
+ * peerEurekaNodes 带有 @ConditionalOnMissingBean, 直接定义为 MeteredPeerEurekaNodes。
+ */
+@Configuration
+public class EurekaRegistryConfiguration {
+
+    private static final String REGISTRY_BEAN = "peerAwareInstanceRegistry";
+
+    @Bean
+    public static BeanDefinitionRegistryPostProcessor eurekaInstanceRegistryDefinition() {
+        return new BeanDefinitionRegistryPostProcessor() {
+            @Override
+            public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                if (registry.containsBeanDefinition(REGISTRY_BEAN)) {
+                    registry.removeBeanDefinition(REGISTRY_BEAN);
+                }
+                RootBeanDefinition definition = new RootBeanDefinition(EurekaInstanceRegistry.class);
+                definition.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR);
+                registry.registerBeanDefinition(REGISTRY_BEAN, definition);
+            }
+
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            }
+        };
+    }
+
+    @Bean
+    public PeerEurekaNodes peerEurekaNodes(PeerAwareInstanceRegistry registry, EurekaServerConfig serverConfig,
+                                           EurekaClientConfig clientConfig, ServerCodecs serverCodecs,
+                                           ApplicationInfoManager applicationInfoManager,
+                                           ReplicationClientAdditionalFilters replicationClientAdditionalFilters,
+                                           MeterRegistry meterRegistry) {
+        return new MeteredPeerEurekaNodes(registry, serverConfig, clientConfig, serverCodecs, applicationInfoManager,
+                replicationClientAdditionalFilters, meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder eurekaRegistryMetrics(PeerAwareInstanceRegistry registry) {
+        return new EurekaRegistryMetrics((EurekaInstanceRegistry) registry);
+    }
+}
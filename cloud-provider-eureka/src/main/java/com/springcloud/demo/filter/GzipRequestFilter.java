@@ -0,0 +1,172 @@
+package com.springcloud.demo.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 解压节点间复制请求的 gzip 请求体
+ *
+ * 开启 eureka.server.enable-replicated-request-compression 后节点间的复制请求体为 gzip,
+ * Spring Cloud 注册的 Jersey 过滤器没有配置解压, 直接解析会返回 400, 复制任务被丢弃。
+ * 在 Jersey 之前解压, 并去掉 Content-Encoding 与 Content-Length 请求头。
+ * 只处理 /eureka/peerreplication/ 下的请求; 解压后超过 peer-replication.max-request-bytes 返回 413,
+ * 不会因为一个很小的压缩请求体在内存中展开出任意大的数据。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GzipRequestFilter.class);
+
+    private static final String REPLICATION_PATH = "/eureka/peerreplication/";
+
+    @Value("${peer-replication.max-request-bytes:10485760}")
+    private int maxRequestBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+                || !request.getRequestURI().startsWith(request.getContextPath() + REPLICATION_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body;
+        try {
+            body = inflate(request.getInputStream());
+        } catch (ZipException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "malformed gzip request body");
+            return;
+        }
+        if (body == null) {
+            LOGGER.warn("replication request {} from {} exceeds {} bytes after decompression",
+                    request.getRequestURI(), request.getRemoteAddr(), maxRequestBytes);
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "request body exceeds " + maxRequestBytes + " bytes after decompression");
+            return;
+        }
+        chain.doFilter(new DecompressingRequestWrapper(request, body), response);
+    }
+
+    /**
+     * 解压请求体, 超过 maxRequestBytes 时停止读取并返回 null
+     */
+    private byte[] inflate(InputStream compressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (GZIPInputStream gzip = new GZIPInputStream(compressed)) {
+            int read;
+            while ((read = gzip.read(buffer)) != -1) {
+                if (out.size() + read > maxRequestBytes) {
+                    return null;
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static class DecompressingRequestWrapper extends HttpServletRequestWrapper {
+
+        private final ByteArrayInputStream body;
+
+        private final ServletInputStream inputStream = new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return body.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return body.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return body.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("non-blocking read of a gzip request body");
+            }
+        };
+
+        DecompressingRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isRemoved(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isRemoved(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(DecompressingRequestWrapper::isRemoved);
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return isRemoved(name) ? -1 : super.getIntHeader(name);
+        }
+
+        private static boolean isRemoved(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.springcloud.demo.registry;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl;
+import com.netflix.eureka.resources.ServerCodecs;
+import org.springframework.cloud.netflix.eureka.server.InstanceRegistryProperties;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 注册表, 替代 Spring Cloud 的 InstanceRegistry
+ *
+ * 行为与 InstanceRegistry 相同(发布注册、续约、下线事件, 启动时的默认续约客户端数), 区别:
+ * 续约按应用名与实例 id 直接取实例, InstanceRegistry 每次续约都复制并排序整个注册表, 实例数上千后续约开销随规模线性增长;
+ * 下线事件只在 internalCancel 中发布一次(InstanceRegistry 主动下线时会发布两次);
+ * 读接口使用的响应缓存包装为 MeteredResponseCache, 并分别统计本节点与复制来的注册、续约、下线次数。
+ */
+public class EurekaInstanceRegistry extends PeerAwareInstanceRegistryImpl implements ApplicationEventPublisherAware {
+
+    private final int defaultOpenForTrafficCount;
+    private final Activity registrations = new Activity();
+    private final Activity renewals = new Activity();
+    private final Activity cancellations = new Activity();
+    private ApplicationEventPublisher publisher;
+
+    public EurekaInstanceRegistry(EurekaServerConfig serverConfig, EurekaClientConfig clientConfig,
+                                  ServerCodecs serverCodecs, EurekaClient eurekaClient,
+                                  InstanceRegistryProperties properties) {
+        super(serverConfig, clientConfig, serverCodecs, eurekaClient);
+        //与 EurekaServerAutoConfiguration 一致, 先完成客户端初始化
+        eurekaClient.getApplications();
+        this.expectedNumberOfClientsSendingRenews = properties.getExpectedNumberOfClientsSendingRenews();
+        this.defaultOpenForTrafficCount = properties.getDefaultOpenForTrafficCount();
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public synchronized void initializedResponseCache() {
+        super.initializedResponseCache();
+        if (!(responseCache instanceof MeteredResponseCache)) {
+            responseCache = new MeteredResponseCache(responseCache);
+        }
+    }
+
+    @Override
+    public void openForTraffic(ApplicationInfoManager applicationInfoManager, int count) {
+        super.openForTraffic(applicationInfoManager, count == 0 ? defaultOpenForTrafficCount : count);
+    }
+
+    @Override
+    public void register(InstanceInfo info, int leaseDuration, boolean isReplication) {
+        registered(info, leaseDuration, isReplication);
+        super.register(info, leaseDuration, isReplication);
+    }
+
+    @Override
+    public void register(InstanceInfo info, boolean isReplication) {
+        LeaseInfo leaseInfo = info.getLeaseInfo();
+        int leaseDuration = leaseInfo != null && leaseInfo.getDurationInSecs() > 0
+                ? leaseInfo.getDurationInSecs() : LeaseInfo.DEFAULT_LEASE_DURATION;
+        registered(info, leaseDuration, isReplication);
+        super.register(info, isReplication);
+    }
+
+    @Override
+    public boolean renew(String appName, String id, boolean isReplication) {
+        renewals.record(isReplication);
+        InstanceInfo instance = getInstanceByAppAndId(appName, id, false);
+        if (instance != null) {
+            publish(new EurekaInstanceRenewedEvent(this, appName, id, instance, isReplication));
+        }
+        return super.renew(appName, id, isReplication);
+    }
+
+    @Override
+    protected boolean internalCancel(String appName, String id, boolean isReplication) {
+        cancellations.record(isReplication);
+        publish(new EurekaInstanceCanceledEvent(this, appName, id, isReplication));
+        return super.internalCancel(appName, id, isReplication);
+    }
+
+    /**
+     * 注册次数, replication 为 true 时统计其它节点复制来的注册
+     */
+    public long getRegistrations(boolean replication) {
+        return registrations.get(replication);
+    }
+
+    public long getRenewals(boolean replication) {
+        return renewals.get(replication);
+    }
+
+    public long getCancellations(boolean replication) {
+        return cancellations.get(replication);
+    }
+
+    private void registered(InstanceInfo info, int leaseDuration, boolean isReplication) {
+        registrations.record(isReplication);
+        publish(new EurekaInstanceRegisteredEvent(this, info, leaseDuration, isReplication));
+    }
+
+    private void publish(Object event) {
+        if (publisher != null) {
+            publisher.publishEvent(event);
+        }
+    }
+
+    /**
+     * 按是否复制请求分别计数
+     */
+    private static class Activity {
+
+        private final LongAdder local = new LongAdder();
+        private final LongAdder replicated = new LongAdder();
+
+        void record(boolean replication) {
+            (replication ? replicated : local).increment();
+        }
+
+        long get(boolean replication) {
+            return (replication ? replicated : local).sum();
+        }
+    }
+}
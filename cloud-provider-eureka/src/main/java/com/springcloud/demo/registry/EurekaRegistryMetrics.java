@@ -0,0 +1,92 @@
+package com.springcloud.demo.registry;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 注册中心指标
+ *
+ * eureka.registry.applications / instances        已注册的应用数与实例数
+ * eureka.registry.registrations / renewals / cancellations   注册、续约、下线次数, 标签 replication 区分其它节点复制来的请求
+ * eureka.renews.last.min                          最近一分钟的续约数
+ * eureka.renews.threshold                         每分钟续约数阈值, 低于阈值时进入自我保护
+ * eureka.renews.below.threshold                   1 表示续约数低于阈值且开启了自我保护
+ * eureka.response.cache.requests                  读注册表的请求数, 标签 type 为 full/delta/application, result 为 hit/miss
+ * eureka.response.cache.size                      读写缓存层中的缓存项数
+ */
+public class EurekaRegistryMetrics implements MeterBinder {
+
+    private final EurekaInstanceRegistry registry;
+
+    public EurekaRegistryMetrics(EurekaInstanceRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        //getApplications 会复制整个注册表, 只在采集时调用
+        Gauge.builder("eureka.registry.applications", registry,
+                r -> r.getApplications().getRegisteredApplications().size())
+                .description("applications with at least one registered instance")
+                .register(meterRegistry);
+        Gauge.builder("eureka.registry.instances", registry, EurekaInstanceRegistry::getLocalRegistrySize)
+                .description("registered instances")
+                .register(meterRegistry);
+        for (boolean replication : new boolean[]{false, true}) {
+            String tag = String.valueOf(replication);
+            FunctionCounter.builder("eureka.registry.registrations", registry, r -> r.getRegistrations(replication))
+                    .description("instance registrations")
+                    .tag("replication", tag)
+                    .register(meterRegistry);
+            FunctionCounter.builder("eureka.registry.renewals", registry, r -> r.getRenewals(replication))
+                    .description("lease renewals")
+                    .tag("replication", tag)
+                    .register(meterRegistry);
+            FunctionCounter.builder("eureka.registry.cancellations", registry, r -> r.getCancellations(replication))
+                    .description("instance cancellations and evictions")
+                    .tag("replication", tag)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("eureka.renews.last.min", registry, EurekaInstanceRegistry::getNumOfRenewsInLastMin)
+                .description("lease renewals in the last minute")
+                .register(meterRegistry);
+        Gauge.builder("eureka.renews.threshold", registry, EurekaInstanceRegistry::getNumOfRenewsPerMinThreshold)
+                .description("renewals per minute below which self preservation starts")
+                .register(meterRegistry);
+        Gauge.builder("eureka.renews.below.threshold", registry, EurekaInstanceRegistry::isBelowRenewThresold)
+                .description("1 when renewals are below the threshold and self preservation is enabled")
+                .register(meterRegistry);
+        for (String type : MeteredResponseCache.TYPES) {
+            FunctionCounter.builder("eureka.response.cache.requests", registry, r -> hits(r, type))
+                    .description("registry reads served by the response cache")
+                    .tag("type", type)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("eureka.response.cache.requests", registry, r -> misses(r, type))
+                    .description("registry reads served by the response cache")
+                    .tag("type", type)
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("eureka.response.cache.size", registry,
+                r -> r.getResponseCache() instanceof MeteredResponseCache
+                        ? ((MeteredResponseCache) r.getResponseCache()).getSize() : 0)
+                .description("entries in the read-write response cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 响应缓存在注册中心上下文初始化时才创建, 之前为 0
+     */
+    private static double hits(EurekaInstanceRegistry registry, String type) {
+        return registry.getResponseCache() instanceof MeteredResponseCache
+                ? ((MeteredResponseCache) registry.getResponseCache()).getHits(type) : 0;
+    }
+
+    private static double misses(EurekaInstanceRegistry registry, String type) {
+        return registry.getResponseCache() instanceof MeteredResponseCache
+                ? ((MeteredResponseCache) registry.getResponseCache()).getMisses(type) : 0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.springcloud.demo.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.cluster.HttpReplicationClient;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+
+/**
+ * 记录注册、续约、下线任务提交时间的节点
+ *
+ * 这三类任务由 PeerEurekaNode 按实例合并后批量发送(每批最多 250 个, 最多等待 500 毫秒),
+ * 确认时间由 MeteredReplicationClient 在批量请求返回后记录。
+ */
+public class MeteredPeerEurekaNode extends PeerEurekaNode {
+
+    private final ReplicationTracker tracker;
+
+    public MeteredPeerEurekaNode(PeerAwareInstanceRegistry registry, String targetHost, String serviceUrl,
+                                 HttpReplicationClient replicationClient, EurekaServerConfig config,
+                                 ReplicationTracker tracker) {
+        super(registry, targetHost, serviceUrl, replicationClient, config);
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void register(InstanceInfo info) throws Exception {
+        tracker.submitted(ReplicationTracker.taskId("register", info.getAppName(), info.getId()));
+        super.register(info);
+    }
+
+    @Override
+    public void cancel(String appName, String id) throws Exception {
+        tracker.submitted(ReplicationTracker.taskId("cancel", appName, id));
+        super.cancel(appName, id);
+    }
+
+    @Override
+    public void heartbeat(String appName, String id, InstanceInfo info, InstanceInfo.InstanceStatus overriddenStatus,
+                          boolean primeConnection) throws Throwable {
+        if (!primeConnection) {
+            tracker.submitted(ReplicationTracker.taskId("heartbeat", appName, id));
+        }
+        super.heartbeat(appName, id, info, overriddenStatus, primeConnection);
+    }
+
+    @Override
+    public void shutDown() {
+        super.shutDown();
+        tracker.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.springcloud.demo.registry;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import com.netflix.eureka.cluster.PeerEurekaNodes;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.resources.ServerCodecs;
+import com.netflix.eureka.transport.JerseyReplicationClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.netflix.eureka.server.ReplicationClientAdditionalFilters;
+import org.springframework.context.ApplicationListener;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * 集群节点列表, 替代 Spring Cloud 的 RefreshablePeerEurekaNodes
+ *
+ * 与之相同: 复制客户端附加 ReplicationClientAdditionalFilters, 配置刷新后重新解析节点地址;
+ * 区别是每个节点的复制请求经 MeteredPeerEurekaNode、MeteredReplicationClient 统计, 见 ReplicationTracker。
+ */
+public class MeteredPeerEurekaNodes extends PeerEurekaNodes implements ApplicationListener<EnvironmentChangeEvent> {
+
+    private final ReplicationClientAdditionalFilters additionalFilters;
+    private final MeterRegistry meterRegistry;
+
+    public MeteredPeerEurekaNodes(PeerAwareInstanceRegistry registry, EurekaServerConfig serverConfig,
+                                  EurekaClientConfig clientConfig, ServerCodecs serverCodecs,
+                                  ApplicationInfoManager applicationInfoManager,
+                                  ReplicationClientAdditionalFilters additionalFilters, MeterRegistry meterRegistry) {
+        super(registry, serverConfig, clientConfig, serverCodecs, applicationInfoManager);
+        this.additionalFilters = additionalFilters;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected PeerEurekaNode createPeerEurekaNode(String peerEurekaNodeUrl) {
+        JerseyReplicationClient replicationClient =
+                JerseyReplicationClient.createReplicationClient(serverConfig, serverCodecs, peerEurekaNodeUrl);
+        additionalFilters.getFilters().forEach(replicationClient::addReplicationClientFilter);
+        String targetHost = hostFromUrl(peerEurekaNodeUrl);
+        if (targetHost == null) {
+            targetHost = "host";
+        }
+        ReplicationTracker tracker = new ReplicationTracker(meterRegistry, peerName(peerEurekaNodeUrl),
+                serverConfig.getMaxTimeForReplication());
+        return new MeteredPeerEurekaNode(registry, targetHost, peerEurekaNodeUrl,
+                new MeteredReplicationClient(replicationClient, tracker), serverConfig, tracker);
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (shouldUpdate(event.getKeys())) {
+            updatePeerEurekaNodes(resolvePeerUrls());
+        }
+    }
+
+    private boolean shouldUpdate(Set<String> changedKeys) {
+        if (clientConfig.shouldUseDnsForFetchingServiceUrls()) {
+            return false;
+        }
+        if (changedKeys.contains("eureka.client.region")) {
+            return true;
+        }
+        for (String key : changedKeys) {
+            if (key.startsWith("eureka.client.service-url.") || key.startsWith("eureka.client.availability-zones.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指标标签用 host:port, 同一主机上的多个节点可以区分
+     */
+    private static String peerName(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
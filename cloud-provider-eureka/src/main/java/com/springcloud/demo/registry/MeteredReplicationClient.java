@@ -0,0 +1,109 @@
+package com.springcloud.demo.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.cluster.HttpReplicationClient;
+import com.netflix.eureka.cluster.protocol.ReplicationList;
+import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
+import com.netflix.eureka.resources.ASGResource;
+
+/**
+ * 统计批量复制请求的复制客户端, 其余请求直接转发
+ */
+public class MeteredReplicationClient implements HttpReplicationClient {
+
+    private final HttpReplicationClient delegate;
+    private final ReplicationTracker tracker;
+
+    public MeteredReplicationClient(HttpReplicationClient delegate, ReplicationTracker tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public EurekaHttpResponse<ReplicationListResponse> submitBatchUpdates(ReplicationList replicationList) {
+        long begin = System.nanoTime();
+        boolean success = false;
+        try {
+            EurekaHttpResponse<ReplicationListResponse> response = delegate.submitBatchUpdates(replicationList);
+            success = response.getStatusCode() == 200;
+            return response;
+        } finally {
+            tracker.batchCompleted(replicationList, System.nanoTime() - begin, success);
+        }
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> statusUpdate(String asgName, ASGResource.ASGStatus newStatus) {
+        return delegate.statusUpdate(asgName, newStatus);
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> register(InstanceInfo info) {
+        return delegate.register(info);
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> cancel(String appName, String id) {
+        return delegate.cancel(appName, id);
+    }
+
+    @Override
+    public EurekaHttpResponse<InstanceInfo> sendHeartBeat(String appName, String id, InstanceInfo info,
+                                                          InstanceInfo.InstanceStatus overriddenStatus) {
+        return delegate.sendHeartBeat(appName, id, info, overriddenStatus);
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> statusUpdate(String appName, String id, InstanceInfo.InstanceStatus newStatus,
+                                                 InstanceInfo info) {
+        return delegate.statusUpdate(appName, id, newStatus, info);
+    }
+
+    @Override
+    public EurekaHttpResponse<Void> deleteStatusOverride(String appName, String id, InstanceInfo info) {
+        return delegate.deleteStatusOverride(appName, id, info);
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getApplications(String... regions) {
+        return delegate.getApplications(regions);
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getDelta(String... regions) {
+        return delegate.getDelta(regions);
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getVip(String vipAddress, String... regions) {
+        return delegate.getVip(vipAddress, regions);
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getSecureVip(String secureVipAddress, String... regions) {
+        return delegate.getSecureVip(secureVipAddress, regions);
+    }
+
+    @Override
+    public EurekaHttpResponse<Application> getApplication(String appName) {
+        return delegate.getApplication(appName);
+    }
+
+    @Override
+    public EurekaHttpResponse<InstanceInfo> getInstance(String appName, String id) {
+        return delegate.getInstance(appName, id);
+    }
+
+    @Override
+    public EurekaHttpResponse<InstanceInfo> getInstance(String id) {
+        return delegate.getInstance(id);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,111 @@
+package com.springcloud.demo.registry;
+
+import com.netflix.eureka.registry.Key;
+import com.netflix.eureka.registry.ResponseCache;
+import com.netflix.eureka.registry.ResponseCacheImpl;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计命中率的响应缓存
+ *
+ * ResponseCacheImpl 按 Key 缓存编码后的注册表(及其 gzip 结果), 只有缓存项重新生成时才返回新的对象。
+ * 同一 Key 返回的对象与上一次相同记为命中, 否则为未命中(首次请求、注册表变更后失效、只读层同步到新值);
+ * 上一次的对象只保留弱引用, 不延长缓存项的生命周期。按请求类型分别统计: full 全量、delta 增量、application 单个应用。
+ */
+public class MeteredResponseCache implements ResponseCache {
+
+    public static final String[] TYPES = {"full", "delta", "application"};
+
+    private final ResponseCache delegate;
+    private final Map<Key, WeakReference<Object>> payloads = new ConcurrentHashMap<>();
+    private final Map<Key, WeakReference<Object>> gzipPayloads = new ConcurrentHashMap<>();
+    private final LongAdder[] hits = {new LongAdder(), new LongAdder(), new LongAdder()};
+    private final LongAdder[] misses = {new LongAdder(), new LongAdder(), new LongAdder()};
+
+    public MeteredResponseCache(ResponseCache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String get(Key key) {
+        String payload = delegate.get(key);
+        record(payloads, key, payload);
+        return payload;
+    }
+
+    @Override
+    public byte[] getGZIP(Key key) {
+        byte[] payload = delegate.getGZIP(key);
+        record(gzipPayloads, key, payload);
+        return payload;
+    }
+
+    @Override
+    public void invalidate(String appName, String vipAddress, String secureVipAddress) {
+        delegate.invalidate(appName, vipAddress, secureVipAddress);
+    }
+
+    @Override
+    public AtomicLong getVersionDelta() {
+        return delegate.getVersionDelta();
+    }
+
+    @Override
+    public AtomicLong getVersionDeltaWithRegions() {
+        return delegate.getVersionDeltaWithRegions();
+    }
+
+    /**
+     * type 为 TYPES 中的一项
+     */
+    public long getHits(String type) {
+        return hits[indexOf(type)].sum();
+    }
+
+    public long getMisses(String type) {
+        return misses[indexOf(type)].sum();
+    }
+
+    /**
+     * 读写缓存层中的缓存项数
+     */
+    public int getSize() {
+        return delegate instanceof ResponseCacheImpl ? ((ResponseCacheImpl) delegate).getCurrentSize() : 0;
+    }
+
+    private void record(Map<Key, WeakReference<Object>> previous, Key key, Object payload) {
+        int type = typeOf(key);
+        if (payload == null) {
+            misses[type].increment();
+            return;
+        }
+        WeakReference<Object> last = previous.get(key);
+        if (last != null && last.get() == payload) {
+            hits[type].increment();
+        } else {
+            previous.put(key, new WeakReference<>(payload));
+            misses[type].increment();
+        }
+    }
+
+    private static int typeOf(Key key) {
+        if (ResponseCacheImpl.ALL_APPS.equals(key.getName())) {
+            return 0;
+        }
+        return ResponseCacheImpl.ALL_APPS_DELTA.equals(key.getName()) ? 1 : 2;
+    }
+
+    private static int indexOf(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("unknown response cache type " + type);
+    }
+}
@@ -0,0 +1,135 @@
+package com.springcloud.demo.registry;
+
+import com.netflix.eureka.cluster.protocol.ReplicationInstance;
+import com.netflix.eureka.cluster.protocol.ReplicationList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向单个节点复制的指标, 标签 peer 为节点地址
+ *
+ * eureka.replication.lag          注册、续约、下线从提交复制到对方确认的时间; 同一实例的任务在批次发出前被合并时从最早一次提交算起
+ * eureka.replication.pending      已提交、尚未确认的任务数
+ * eureka.replication.tasks        提交的任务数(state=submitted)与实际发出的任务数(state=sent), 差值为合并或过期的任务
+ * eureka.replication.batches      批量复制请求的耗时, 标签 result 为 success/failure
+ * eureka.replication.batch.size   每批的任务数
+ */
+public class ReplicationTracker {
+
+    private final MeterRegistry meterRegistry;
+    private final long maxAgeNanos;
+    private final Map<String, Long> submittedAt = new ConcurrentHashMap<>();
+    private final List<Meter> meters = new ArrayList<>();
+    private final Timer lag;
+    private final Counter submitted;
+    private final Counter sent;
+    private final Timer succeeded;
+    private final Timer failed;
+    private final DistributionSummary batchSize;
+
+    /**
+     * maxAgeMillis 为复制任务的过期时间(eureka.server.max-time-for-replication), 超过后未确认的任务不再跟踪
+     */
+    public ReplicationTracker(MeterRegistry meterRegistry, String peer, long maxAgeMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        Tags tags = Tags.of("peer", peer);
+        lag = add(Timer.builder("eureka.replication.lag")
+                .description("time from submitting a replication task to the peer acknowledging it")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        add(Gauge.builder("eureka.replication.pending", submittedAt, Map::size)
+                .description("replication tasks submitted but not yet acknowledged")
+                .tags(tags)
+                .register(meterRegistry));
+        submitted = add(Counter.builder("eureka.replication.tasks")
+                .description("replication tasks")
+                .tags(tags).tag("state", "submitted")
+                .register(meterRegistry));
+        sent = add(Counter.builder("eureka.replication.tasks")
+                .description("replication tasks")
+                .tags(tags).tag("state", "sent")
+                .register(meterRegistry));
+        succeeded = add(Timer.builder("eureka.replication.batches")
+                .description("batch replication requests")
+                .tags(tags).tag("result", "success")
+                .register(meterRegistry));
+        failed = add(Timer.builder("eureka.replication.batches")
+                .description("batch replication requests")
+                .tags(tags).tag("result", "failure")
+                .register(meterRegistry));
+        batchSize = add(DistributionSummary.builder("eureka.replication.batch.size")
+                .description("replication tasks per batch")
+                .tags(tags)
+                .register(meterRegistry));
+    }
+
+    /**
+     * 与 PeerEurekaNode 中的任务 id 一致, 如 heartbeat#APP/instance-id
+     */
+    public static String taskId(String requestType, String appName, String id) {
+        return requestType + '#' + appName + '/' + id;
+    }
+
+    public void submitted(String taskId) {
+        submitted.increment();
+        submittedAt.putIfAbsent(taskId, System.nanoTime());
+    }
+
+    /**
+     * 一批复制请求完成, success 为 false 时任务会由 PeerEurekaNode 重试, 继续计入延迟
+     */
+    public void batchCompleted(ReplicationList batch, long nanos, boolean success) {
+        List<ReplicationInstance> tasks = batch.getReplicationList();
+        (success ? succeeded : failed).record(nanos, TimeUnit.NANOSECONDS);
+        batchSize.record(tasks.size());
+        if (!success) {
+            return;
+        }
+        sent.increment(tasks.size());
+        long now = System.nanoTime();
+        for (ReplicationInstance task : tasks) {
+            Long begin = submittedAt.remove(taskId(requestType(task), task.getAppName(), task.getId()));
+            if (begin != null) {
+                lag.record(now - begin, TimeUnit.NANOSECONDS);
+            }
+        }
+        //过期丢弃的任务不会被确认
+        submittedAt.values().removeIf(begin -> now - begin > maxAgeNanos);
+    }
+
+    public void close() {
+        meters.forEach(meterRegistry::remove);
+        submittedAt.clear();
+    }
+
+    private static String requestType(ReplicationInstance task) {
+        switch (task.getAction()) {
+            case Register:
+                return "register";
+            case Cancel:
+                return "cancel";
+            case Heartbeat:
+                return "heartbeat";
+            default:
+                return task.getAction().name();
+        }
+    }
+
+    private <T extends Meter> T add(T meter) {
+        meters.add(meter);
+        return meter;
+    }
+}
@@ -0,0 +1,291 @@
+package com.springcloud.demo.perf;
+
+import com.springcloud.demo.EurekaProvideApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * 注册中心负载生成
+ *
+ * 通过 REST 接口模拟 load.instances 个实例(分属 load.applications 个应用)注册并按周期续约,
+ * load.fetchers 个客户端首次全量拉取注册表、之后按周期增量拉取(请求 gzip), 并按 load.churn-per-minute 让实例下线再注册。
+ * 运行 load.duration-seconds 秒后下线全部实例, 输出各类请求的耗时分布与平均响应字节数;
+ * 未指定 load.url 时在本进程内启动注册中心, 同时输出注册表规模、续约数与响应缓存命中率。
+ * 运行: mvn -Pperf -pl cloud-provider-eureka compile exec:java -Dexec.args="--load.instances=5000 --load.duration-seconds=300"
+ */
+public class EurekaLoadGenerator {
+
+    private static final String INSTANCE_JSON = "{\"instance\":{\"instanceId\":\"%1$s\",\"hostName\":\"%2$s\","
+            + "\"app\":\"%3$s\",\"ipAddr\":\"%2$s\",\"vipAddress\":\"%4$s\",\"status\":\"UP\","
+            + "\"port\":{\"$\":8080,\"@enabled\":\"true\"},\"securePort\":{\"$\":443,\"@enabled\":\"false\"},"
+            + "\"leaseInfo\":{\"renewalIntervalInSecs\":%5$d,\"durationInSecs\":%6$d},"
+            + "\"dataCenterInfo\":{\"@class\":\"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo\",\"name\":\"MyOwn\"},"
+            + "\"lastDirtyTimestamp\":\"%7$d\"}}";
+
+    private final LoadSettings settings;
+    private final String url;
+    private final Random random;
+    private final OperationStats register = new OperationStats("register");
+    private final OperationStats renew = new OperationStats("renew");
+    private final OperationStats cancel = new OperationStats("cancel");
+    private final OperationStats fullFetch = new OperationStats("full-fetch");
+    private final OperationStats deltaFetch = new OperationStats("delta-fetch");
+
+    EurekaLoadGenerator(LoadSettings settings, String url) {
+        this.settings = settings;
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.random = new Random(settings.getSeed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = new Binder(ConfigurationPropertySources.from(new SimpleCommandLinePropertySource(args)))
+                .bind("load", LoadSettings.class).orElseGet(LoadSettings::new);
+        //HttpURLConnection 默认每个地址只保持 5 个空闲连接, 并发高于此数时会反复建连
+        System.setProperty("http.maxConnections", String.valueOf(settings.getThreads()));
+        ConfigurableApplicationContext context = null;
+        String url = settings.getUrl();
+        try {
+            if (url == null || url.isEmpty()) {
+                //application.yml 中的配置优先于默认属性, 端口与日志级别以命令行参数覆盖
+                List<String> arguments = new ArrayList<>(Arrays.asList(args));
+                addIfAbsent(arguments, "server.port", "0");
+                addIfAbsent(arguments, "logging.level.com.netflix", "warn");
+                context = SpringApplication.run(EurekaProvideApplication.class, arguments.toArray(new String[0]));
+                url = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/eureka";
+            }
+            EurekaLoadGenerator generator = new EurekaLoadGenerator(settings, url);
+            generator.register();
+            generator.run();
+            //下线前读取服务端指标, 此时注册表仍是满的
+            if (context != null) {
+                printServerMetrics(context.getBean(MeterRegistry.class), System.out);
+            }
+            generator.cancel();
+            generator.print(System.out);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void addIfAbsent(List<String> arguments, String name, String value) {
+        for (String argument : arguments) {
+            if (argument.startsWith("--" + name + "=")) {
+                return;
+            }
+        }
+        arguments.add("--" + name + "=" + value);
+    }
+
+    void register() throws InterruptedException {
+        System.out.println("registering " + settings.getInstances() + " instances against " + url + " ...");
+        forEachInstance(this::register);
+    }
+
+    void cancel() throws InterruptedException {
+        System.out.println("cancelling ...");
+        forEachInstance(this::cancel);
+    }
+
+    /**
+     * 注册完成后按周期续约、拉取与上下线, 持续 load.duration-seconds 秒
+     */
+    void run() throws InterruptedException {
+        int instances = settings.getInstances();
+        System.out.println("running for " + settings.getDurationSeconds() + " s ...");
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(settings.getThreads());
+        long renewMillis = TimeUnit.SECONDS.toMillis(settings.getRenewIntervalSeconds());
+        for (int i = 0; i < instances; i++) {
+            int index = i;
+            scheduler.scheduleAtFixedRate(() -> renew(index), delay(renewMillis), renewMillis, TimeUnit.MILLISECONDS);
+        }
+        long fetchMillis = TimeUnit.SECONDS.toMillis(settings.getFetchIntervalSeconds());
+        for (int i = 0; i < settings.getFetchers(); i++) {
+            scheduler.schedule(new Fetcher(scheduler, fetchMillis), delay(fetchMillis), TimeUnit.MILLISECONDS);
+        }
+        if (settings.getChurnPerMinute() > 0) {
+            long churnMillis = Math.max(1, TimeUnit.MINUTES.toMillis(1) / settings.getChurnPerMinute());
+            scheduler.scheduleAtFixedRate(this::churn, churnMillis, churnMillis, TimeUnit.MILLISECONDS);
+        }
+        TimeUnit.SECONDS.sleep(settings.getDurationSeconds());
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    void print(PrintStream out) {
+        OperationStats.header(out);
+        for (OperationStats stats : new OperationStats[]{register, renew, cancel, fullFetch, deltaFetch}) {
+            stats.print(out);
+        }
+    }
+
+    private static void printServerMetrics(MeterRegistry meters, PrintStream out) {
+        out.println("server: applications " + (long) meters.get("eureka.registry.applications").gauge().value()
+                + ", renews last min " + (long) meters.get("eureka.renews.last.min").gauge().value()
+                + ", response cache entries " + (long) meters.get("eureka.response.cache.size").gauge().value());
+        for (String type : new String[]{"full", "delta", "application"}) {
+            double hits = meters.get("eureka.response.cache.requests").tags("type", type, "result", "hit")
+                    .functionCounter().count();
+            double misses = meters.get("eureka.response.cache.requests").tags("type", type, "result", "miss")
+                    .functionCounter().count();
+            out.println(String.format("response cache %-12s hits %8.0f  misses %6.0f  hit rate %5.1f%%", type, hits,
+                    misses, hits + misses == 0 ? 0 : hits * 100 / (hits + misses)));
+        }
+    }
+
+    private void register(int index) {
+        String body = String.format(INSTANCE_JSON, instanceId(index), host(index), app(index),
+                app(index).toLowerCase(), settings.getRenewIntervalSeconds(), settings.getRenewIntervalSeconds() * 3,
+                System.currentTimeMillis());
+        int status = request("POST", url + "/apps/" + app(index), body, register);
+        if (status > 0 && status != 204) {
+            register.error();
+        }
+    }
+
+    /**
+     * 与 eureka 客户端相同, 续约返回 404 时重新注册
+     */
+    private void renew(int index) {
+        int status = request("PUT", url + "/apps/" + app(index) + "/" + instanceId(index) + "?status=UP", null, renew);
+        if (status == 404) {
+            register(index);
+        } else if (status > 0 && status != 200) {
+            renew.error();
+        }
+    }
+
+    private void cancel(int index) {
+        int status = request("DELETE", url + "/apps/" + app(index) + "/" + instanceId(index), null, cancel);
+        if (status > 0 && status != 200 && status != 404) {
+            cancel.error();
+        }
+    }
+
+    private void forEachInstance(IntConsumer action) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(settings.getThreads());
+        List<Callable<Object>> tasks = new ArrayList<>(settings.getInstances());
+        for (int i = 0; i < settings.getInstances(); i++) {
+            int index = i;
+            tasks.add(Executors.callable(() -> action.accept(index)));
+        }
+        workers.invokeAll(tasks);
+        workers.shutdown();
+    }
+
+    private void churn() {
+        int index = random.nextInt(settings.getInstances());
+        cancel(index);
+        register(index);
+    }
+
+    private long delay(long period) {
+        return period <= 0 ? 0 : (long) (random.nextDouble() * period);
+    }
+
+    private String app(int index) {
+        return "LOAD-APP-" + index % settings.getApplications();
+    }
+
+    private static String instanceId(int index) {
+        return "load-" + index;
+    }
+
+    private static String host(int index) {
+        return "10." + (index >> 16 & 0xff) + "." + (index >> 8 & 0xff) + "." + (index & 0xff);
+    }
+
+    /**
+     * 返回状态码, 连接失败时记为错误并返回 -1; 响应体只读取不解析, 字节数为压缩后的大小
+     */
+    private static int request(String method, String url, String body, OperationStats stats) {
+        long begin = System.nanoTime();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            connection.setRequestProperty("Accept", "application/json");
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            long bytes = 0;
+            try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                if (in != null) {
+                    byte[] buffer = new byte[8192];
+                    for (int n; (n = in.read(buffer)) != -1; ) {
+                        bytes += n;
+                    }
+                }
+            }
+            stats.record(System.nanoTime() - begin, bytes);
+            return status;
+        } catch (IOException e) {
+            stats.error();
+            return -1;
+        }
+    }
+
+    /**
+     * 模拟一个客户端拉取注册表: 首次全量, 之后增量
+     */
+    private class Fetcher implements Runnable {
+
+        private final ScheduledExecutorService scheduler;
+        private final long period;
+        private boolean fetched;
+
+        Fetcher(ScheduledExecutorService scheduler, long period) {
+            this.scheduler = scheduler;
+            this.period = period;
+        }
+
+        @Override
+        public void run() {
+            int status = fetched ? request("GET", url + "/apps/delta", null, deltaFetch)
+                    : request("GET", url + "/apps/", null, fullFetch);
+            if (status == 200) {
+                fetched = true;
+            } else if (status > 0) {
+                (fetched ? deltaFetch : fullFetch).error();
+            }
+            try {
+                scheduler.schedule(this, period, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                //压测结束
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.springcloud.demo.perf;
+
+/**
+ * 负载生成配置, 命令行参数 --load.*
+ */
+public class LoadSettings {
+
+    /**
+     * 注册中心地址, 如 http://127.0.0.1:9000/eureka; 为空时在本进程内启动注册中心
+     */
+    private String url;
+    private int instances = 2000;
+    private int applications = 100;
+    /**
+     * 拉取注册表的客户端数, 实际部署中每个实例都会拉取
+     */
+    private int fetchers = 2000;
+    private int renewIntervalSeconds = 30;
+    private int fetchIntervalSeconds = 30;
+    private int durationSeconds = 120;
+    /**
+     * 每分钟重新上线(下线后再注册)的实例数, 使增量拉取有变更可取
+     */
+    private int churnPerMinute = 60;
+    private int threads = 64;
+    private long seed = 42;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getInstances() {
+        return instances;
+    }
+
+    public void setInstances(int instances) {
+        this.instances = instances;
+    }
+
+    public int getApplications() {
+        return applications;
+    }
+
+    public void setApplications(int applications) {
+        this.applications = applications;
+    }
+
+    public int getFetchers() {
+        return fetchers;
+    }
+
+    public void setFetchers(int fetchers) {
+        this.fetchers = fetchers;
+    }
+
+    public int getRenewIntervalSeconds() {
+        return renewIntervalSeconds;
+    }
+
+    public void setRenewIntervalSeconds(int renewIntervalSeconds) {
+        this.renewIntervalSeconds = renewIntervalSeconds;
+    }
+
+    public int getFetchIntervalSeconds() {
+        return fetchIntervalSeconds;
+    }
+
+    public void setFetchIntervalSeconds(int fetchIntervalSeconds) {
+        this.fetchIntervalSeconds = fetchIntervalSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getChurnPerMinute() {
+        return churnPerMinute;
+    }
+
+    public void setChurnPerMinute(int churnPerMinute) {
+        this.churnPerMinute = churnPerMinute;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
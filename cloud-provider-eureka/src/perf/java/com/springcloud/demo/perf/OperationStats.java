@@ -0,0 +1,53 @@
+package com.springcloud.demo.perf;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单类请求的次数、错误数、耗时分布与响应字节数
+ */
+class OperationStats {
+
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private long[] latencies = new long[1024];
+    private int count;
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos, long responseBytes) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        bytes.add(responseBytes);
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    static void header(PrintStream out) {
+        out.println(String.format("%-14s%9s%8s%10s%10s%10s%12s", "operation", "ops", "errors", "p50", "p99", "max(ms)",
+                "avg bytes"));
+    }
+
+    synchronized void print(PrintStream out) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        out.println(String.format("%-14s%9d%8d%10.2f%10.2f%10.2f%12d", name, count, errors.sum(),
+                millis(sorted, 0.50), millis(sorted, 0.99), count == 0 ? 0 : sorted[count - 1] / 1e6,
+                count == 0 ? 0 : bytes.sum() / count));
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,109 @@
+package com.springcloud.demo.util;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 去重窗口
+ *
+ * 每个id一个 key, 有两种状态:
+ *      processing:{token}  正在处理, 存活时间较短; 处理者崩溃或会话断开后自动过期, 重投的消息可以重新处理
+ *      done                已处理成功, 存活一个去重窗口; 窗口内再次出现即为重复
+ * 认领(不存在时写入 processing)与读取当前状态通过一次 lua 脚本原子完成, 并发认领时只有一方成功。
+ */
+public class RedisDedupUtil {
+
+    private static RedisTemplate redisTemplate = RedisUtil.getInstance();
+
+    private static final String DONE = "done";
+    private static final String PROCESSING_PREFIX = "processing:";
+
+    /** 不存在则写入 processing 并返回空串, 否则返回当前值 */
+    private static final String CLAIM_LUA = "local v = redis.call('get',KEYS[1]) "
+            + "if v then "
+            + "    return v "
+            + "end "
+            + "redis.call('set',KEYS[1],ARGV[1],'EX',ARGV[2]) "
+            + "return '' ";
+
+    /** 只删除自己的 processing 标记 */
+    private static final String RELEASE_LUA = "if redis.call('get',KEYS[1]) == ARGV[1] "
+            + "then "
+            + "    return redis.call('del',KEYS[1]) "
+            + "else "
+            + "    return 0 "
+            + "end ";
+
+    /**
+     * 认领结果
+     */
+    public enum State {
+        /** 认领成功, 由调用方处理 */
+        CLAIMED,
+        /** 其他消费者正在处理(或处理者崩溃后标记尚未过期) */
+        PROCESSING,
+        /** 窗口内已处理成功 */
+        DONE
+    }
+
+    /**
+     * 认领id
+     *
+     * @param namespace
+     *            命名空间, 如队列名
+     * @param id
+     *            要去重的id
+     * @param token
+     *            认领者标识, 释放时校验
+     * @param processingSeconds
+     *            processing 标记的存活时间(秒)
+     * @return 认领结果
+     */
+    public static State claim(String namespace, String id, String token, long processingSeconds) {
+        Object result = redisTemplate.execute((RedisConnection connection) ->
+                connection.eval(CLAIM_LUA.getBytes(StandardCharsets.UTF_8), ReturnType.VALUE, 1,
+                        key(namespace, id), (PROCESSING_PREFIX + token).getBytes(StandardCharsets.UTF_8),
+                        String.valueOf(processingSeconds).getBytes(StandardCharsets.UTF_8))
+        );
+        if (result == null) {
+            throw new RedisUtil.RedisOpsResultIsNullException();
+        }
+        String current = new String((byte[]) result, StandardCharsets.UTF_8);
+        if (current.isEmpty()) {
+            return State.CLAIMED;
+        }
+        return DONE.equals(current) ? State.DONE : State.PROCESSING;
+    }
+
+    /**
+     * 标记为已处理, 去重窗口内再次出现时判为重复
+     *
+     * @param windowSeconds
+     *            去重窗口(秒)
+     */
+    public static void complete(String namespace, String id, long windowSeconds) {
+        redisTemplate.execute((RedisConnection connection) ->
+                connection.set(key(namespace, id), DONE.getBytes(StandardCharsets.UTF_8),
+                        Expiration.seconds(windowSeconds), RedisStringCommands.SetOption.UPSERT)
+        );
+    }
+
+    /**
+     * 撤销自己的认领(处理失败时调用, 使重投的消息可以立即重新处理)
+     */
+    public static void release(String namespace, String id, String token) {
+        redisTemplate.execute((RedisConnection connection) ->
+                connection.eval(RELEASE_LUA.getBytes(StandardCharsets.UTF_8), ReturnType.BOOLEAN, 1,
+                        key(namespace, id), (PROCESSING_PREFIX + token).getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    private static byte[] key(String namespace, String id) {
+        return ("dedup:" + namespace + ":" + id).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -83,6 +83,9 @@ public class RedisLockUtil {
     /** lua脚本, 保证 释放锁脚本 的原子性(以避免, 并发场景下, 释放了别人的锁) */
     private static final String RELEASE_LOCK_LUA;
 
+    /** lua脚本, 只有锁仍是自己的时才延长存活时长 */
+    private static final String RENEW_LOCK_LUA;
+
     /** 分布式锁默认(最大)存活时长 */
     public static final long DEFAULT_LOCK_TIMEOUT = 3;
 
@@ -97,6 +100,12 @@ public class RedisLockUtil {
                 + "else "
                 + "    return 0 "
                 + "end ";
+        RENEW_LOCK_LUA = "if redis.call('get',KEYS[1]) == ARGV[1] "
+                + "then "
+                + "    return redis.call('pexpire',KEYS[1],ARGV[2]) "
+                + "else "
+                + "    return 0 "
+                + "end ";
     }
 
     /**
@@ -242,6 +251,37 @@ public class RedisLockUtil {
         return result;
     }
 
+    /**
+     * 续期(分布式)锁
+     *
+     * 注: 只有锁仍由自己持有(value相同)时才重新设置(最大)存活时长;
+     *     锁已过期或已被别人获取时返回false, 调用方应停止临界区内的操作。
+     *
+     * @param key
+     *            锁名
+     * @param value
+     *            获取锁时使用的value
+     * @param timeout
+     *            新的(最大)存活时长
+     * @param unit
+     *            timeout的单位
+     *
+     * @return 续期是否成功
+     */
+    public static boolean renewLock(final String key, final String value,
+                                    final long timeout, final TimeUnit unit) {
+        Object result = redisTemplate.execute((RedisConnection connection) ->
+                connection.eval(RENEW_LOCK_LUA.getBytes(),
+                        ReturnType.BOOLEAN, 1,
+                        key.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8),
+                        String.valueOf(unit.toMillis(timeout)).getBytes(StandardCharsets.UTF_8))
+        );
+        if (result == null) {
+            throw new RedisUtil.RedisOpsResultIsNullException();
+        }
+        return Boolean.TRUE.equals(result);
+    }
+
     /**
      * 释放锁, 不校验该key对应的value值
      *
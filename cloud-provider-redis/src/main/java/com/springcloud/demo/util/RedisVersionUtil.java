@@ -0,0 +1,72 @@
+package com.springcloud.demo.util;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 版本计数器
+ *
+ * 键为 version:<name>, 值为十进制数字字符串(不经过 RedisTemplate 的值序列化, 以便使用 INCR);
+ * 键不存在时以当前毫秒数初始化, Redis 数据丢失后版本号不会回退到旧值。
+ */
+public class RedisVersionUtil {
+
+    /**
+     * 当前版本
+     *
+     * @param name
+     *            计数器名称
+     * @return 版本号
+     */
+    public static long get(String name) {
+        byte[] key = key(name);
+        Long version = template().execute((RedisCallback<Long>) connection -> {
+            byte[] value = connection.get(key);
+            if (value == null) {
+                connection.setNX(key, initialValue());
+                value = connection.get(key);
+            }
+            return value == null ? null : Long.parseLong(new String(value, StandardCharsets.UTF_8));
+        });
+        if (version == null) {
+            throw new RedisUtil.RedisOpsResultIsNullException();
+        }
+        return version;
+    }
+
+    /**
+     * 版本增加 delta
+     *
+     * @param name
+     *            计数器名称
+     * @param delta
+     *            增量
+     * @return 增加后的版本号
+     */
+    public static long increment(String name, long delta) {
+        byte[] key = key(name);
+        Long version = template().execute((RedisCallback<Long>) connection -> {
+            connection.setNX(key, initialValue());
+            return connection.incrBy(key, delta);
+        });
+        if (version == null) {
+            throw new RedisUtil.RedisOpsResultIsNullException();
+        }
+        return version;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisTemplate<Object, Object> template() {
+        return RedisUtil.getInstance();
+    }
+
+    private static byte[] initialValue() {
+        return String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] key(String name) {
+        return ("version:" + name).getBytes(StandardCharsets.UTF_8);
+    }
+}
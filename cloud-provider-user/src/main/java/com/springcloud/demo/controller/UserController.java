@@ -1,10 +1,18 @@
 package com.springcloud.demo.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.api.UserApi;
+import com.springcloud.demo.api.UserList;
 import com.springcloud.demo.entity.User;
+import com.springcloud.demo.json.StreamingJsonWriter;
 import com.springcloud.demo.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,19 +23,21 @@ import java.util.Map;
  * @Description: 用户前端控制类
  */
 @RestController
-@RequestMapping("/user")
-public class UserController {
+@RequestMapping(UserApi.PATH)
+public class UserController implements UserApi {
 
     @Resource
     private UserService userService;
 
+    @Resource
+    private ObjectMapper objectMapper;
+
     /**
      * 保存
      * @param user
      * @return
      */
-    @ResponseBody
-    @RequestMapping(value = "/save",method = RequestMethod.POST)
+    @Override
     public Map<String, Object> save(@RequestBody User user) {
 
         Map<String, Object> resultMap = new HashMap<>(16);
@@ -43,16 +53,54 @@ public class UserController {
      * @param
      * @return
      */
-    @RequestMapping("/find")
-    public Map<String, Object> findAll() {
+    @Override
+    public UserList findAll() {
 
         System.out.println("------>provider");
 
-        Map<String, Object> resultMap = new HashMap<>(16);
-        List<User> list = userService.findAll();
-        resultMap.put("list",list);
-        return resultMap;
+        return new UserList(userService.findAll());
+
+    }
+
+    /**
+     * 流式查询所有用户, 结构与 /find 相同, 逐行读库逐个写出, 不在内存中组装完整列表;
+     * 读库中途失败时不写结尾, 客户端无法把截断的列表解析为完整结果
+     * @return
+     */
+    @RequestMapping(value = "/stream", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody stream() {
+        return out -> {
+            try (StreamingJsonWriter writer = StreamingJsonWriter.open(out, objectMapper, "list")) {
+                userService.forEach(user -> {
+                    try {
+                        writer.write(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.finish();
+            }
+        };
+    }
+
+    /**
+     * 按id批量查询
+     * @param ids
+     * @return
+     */
+    @Override
+    public List<User> findByIds(@RequestBody List<Integer> ids) {
+        return userService.findByIds(ids);
+    }
 
+    /**
+     * 按用户名批量查询
+     * @param userNames
+     * @return
+     */
+    @Override
+    public List<User> findByNames(@RequestBody List<String> userNames) {
+        return userService.findByNames(userNames);
     }
 
     /**
@@ -109,6 +157,7 @@ public class UserController {
             resultMap.put("error", "该用户名已使用");
             return resultMap;
         }
+        user = new User();
         user.setPhoneNumber(phoneNumber);
         user.setUserName(userName);
         user.setPassWord(passWord);
@@ -1,23 +1,155 @@
 package com.springcloud.demo.dao;
 
+import com.springcloud.demo.datasource.SegmentIdGenerator;
+import com.springcloud.demo.datasource.ShardQueryExecutor;
+import com.springcloud.demo.datasource.ShardRouting;
+import com.springcloud.demo.datasource.ShardedDataSource;
 import com.springcloud.demo.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * @Author: dq
  * @Date: 2020/11/3 13:23
  * @Description: 用户数据库操作类
+ *
+ * 配置了多个分片时 user 表按 id 分片(id 对分片数取模), 写入前由 nextId() 分配全局id;
+ * 用户名、手机号、身份证号经各自的索引表(按索引值的 hash 分片)找到 id 再到所在分片查询,
+ * 无法定位分片的查询(全表、模糊匹配)在全部分片上并行执行后合并。只有一个分片时与原来相同, id 仍为自增。
  */
 @Repository
 public class UserDao extends BaseDao {
 
+    private static final Comparator<User> BY_ID = Comparator.comparing(User::getId);
+
+    /**
+     * 删除索引用到的列; BeanPropertyRowMapper 不能把 id_card 列对应到 IDCard 属性, 这里显式映射
+     */
+    private static final RowMapper<User> LOOKUP_KEYS = (rs, rowNum) -> {
+        User user = new User();
+        user.setId(rs.getInt("id"));
+        user.setUserName(rs.getString("user_name"));
+        user.setPhoneNumber(rs.getString("phone_number"));
+        user.setIDCard(rs.getString("id_card"));
+        return user;
+    };
+
+    /**
+     * 非 MySQL 驱动遍历时每批读取的行数
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    @Autowired
+    private ShardedDataSource dataSource;
+
+    @Autowired
+    private ShardQueryExecutor shardQueryExecutor;
+
+    @Value("${user.sharding.id-step:100}")
+    private int idStep;
+
+    private SegmentIdGenerator idGenerator;
+
+    @PostConstruct
+    public void init() {
+        //号段表放在 0 号分片主库, 首次使用时从各分片当前最大id之后开始分配
+        idGenerator = new SegmentIdGenerator(dataSource.getShards().get(0).getPrimary(), "user", idStep,
+                () -> shardQueryExecutor.gather(shard ->
+                        jdbcTemplate.queryForObject("select coalesce(max(id), 0) from user", Long.class))
+                        .stream().mapToLong(Long::longValue).max().orElse(0) + 1);
+    }
+
+    /**
+     * 是否分片
+     * @return
+     */
+    public boolean isSharded() {
+        return ShardRouting.shardCount() > 1;
+    }
+
+    /**
+     * 用户所在分片, id 为空(尚未分配)时为 0 号分片
+     * @param id
+     * @return
+     */
+    public int shardOf(Integer id) {
+        return id == null ? 0 : ShardRouting.shardOf(id);
+    }
+
+    /**
+     * 分配全局用户id, 仅在分片时使用
+     * @return
+     */
+    public Integer nextId() {
+        return Math.toIntExact(idGenerator.next());
+    }
+
+    /**
+     * 写入用户名、手机号、身份证号索引, 在用户所在分片的事务之外、写入用户之前调用;
+     * 用户写入失败时留下的索引查不到用户, 会被查询忽略
+     * @param user
+     */
+    public void saveLookups(User user) {
+        saveLookup("user_name_lookup", "user_name", user.getUserName(), user.getId());
+        saveLookup("user_phone_lookup", "phone_number", user.getPhoneNumber(), user.getId());
+        saveLookup("user_id_card_lookup", "id_card", user.getIDCard(), user.getId());
+    }
+
+    private void saveLookup(String table, String column, String value, Integer userId) {
+        if (value == null) {
+            return;
+        }
+        String sql = "insert into " + table + "(" + column + ", user_id) values(?,?)";
+        ShardRouting.run(ShardRouting.shardOf(value), () -> {
+            try {
+                jdbcTemplate.update(sql, value, userId);
+            } catch (DuplicateKeyException e) {
+                //重试时已写入
+            }
+        });
+    }
+
+    private void deleteLookup(String table, String column, String value, Integer userId) {
+        if (value == null) {
+            return;
+        }
+        String sql = "delete from " + table + " where " + column + " = ? and user_id = ?";
+        ShardRouting.run(ShardRouting.shardOf(value), () -> jdbcTemplate.update(sql, value, userId));
+    }
+
+    /**
+     * 按索引表查询用户id
+     */
+    private List<Integer> findLookup(String table, String column, String value) {
+        String sql = "select user_id from " + table + " where " + column + " = ?";
+        return ShardRouting.call(ShardRouting.shardOf(value), () -> jdbcTemplate.queryForList(sql, Integer.class, value));
+    }
+
     /**
      * 保存用户
      * @param user
@@ -25,7 +157,20 @@ public class UserDao extends BaseDao {
      */
     public Integer save(User user) {
         String sql = "insert into user( id, user_name, pass_word, id_card, phone_number) values(?,?,?,?,?)";
-        Integer count = jdbcTemplate.update(sql, user.getId(), user.getUserName(), user.getPassWord(), user.getIDCard(), user.getPhoneNumber());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        Integer count = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setObject(1, user.getId());
+            ps.setString(2, user.getUserName());
+            ps.setString(3, user.getPassWord());
+            ps.setString(4, user.getIDCard());
+            ps.setString(5, user.getPhoneNumber());
+            return ps;
+        }, keyHolder);
+        //回填自增id
+        if (user.getId() == null && keyHolder.getKey() != null) {
+            user.setId(keyHolder.getKey().intValue());
+        }
         return count;
     }
 
@@ -36,18 +181,116 @@ public class UserDao extends BaseDao {
      */
     public Integer delete(String id) {
         String sql = "delete from user where id=?";
-        Integer count = jdbcTemplate.update(sql, id);
-        return count;
+        if (!isSharded()) {
+            Integer count = jdbcTemplate.update(sql, id);
+            return count;
+        }
+        Integer userId = Integer.valueOf(id);
+        User user = ShardRouting.call(shardOf(userId), () -> {
+            List<User> users = jdbcTemplate.query("select id, user_name, phone_number, id_card from user where id=?",
+                    LOOKUP_KEYS, userId);
+            return users.isEmpty() || jdbcTemplate.update(sql, userId) == 0 ? null : users.get(0);
+        });
+        if (user == null) {
+            return 0;
+        }
+        deleteLookup("user_name_lookup", "user_name", user.getUserName(), userId);
+        deleteLookup("user_phone_lookup", "phone_number", user.getPhoneNumber(), userId);
+        deleteLookup("user_id_card_lookup", "id_card", user.getIDCard(), userId);
+        return 1;
     }
 
     /**
-     * 查询全部用户
+     * 查询全部用户, 分片时各分片并行查询后按id归并
      *
      * @return
      */
     public List<User> findAll() {
         String sql = "select * from user order by id";
-        return jdbcTemplate.query(sql, new BeanPropertyRowMapper(User.class));
+        return ShardQueryExecutor.merge(shardQueryExecutor.gather(shard ->
+                jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(User.class))), BY_ID);
+    }
+
+    /**
+     * 逐行遍历全部用户, 结果集不整体载入内存; 分片时逐个分片遍历, 只在分片内按id有序
+     * @param action
+     */
+    public void forEach(Consumer<User> action) {
+        String sql = "select * from user order by id";
+        RowMapper<User> rowMapper = new BeanPropertyRowMapper<>(User.class);
+        for (int shard = 0; shard < ShardRouting.shardCount(); shard++) {
+            ShardRouting.run(shard, () -> jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                //MySQL 驱动只有 fetchSize 为 Integer.MIN_VALUE 时才逐行读取, 否则一次读入全部结果; 其它驱动不接受负数, 按批读取
+                ps.setFetchSize(isMySql(connection) ? Integer.MIN_VALUE : STREAM_FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> action.accept(rowMapper.mapRow(rs, rs.getRow()))));
+        }
+    }
+
+    /**
+     * 按id批量查询, 分片时按所在分片分组并行查询
+     * @param ids
+     * @return
+     */
+    public List<User> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!isSharded()) {
+            return findByIdsOnShard(ids);
+        }
+        Map<Integer, List<Integer>> idsByShard = ids.stream().distinct().collect(Collectors.groupingBy(this::shardOf));
+        List<List<User>> parts = shardQueryExecutor.gather(shard -> {
+            List<Integer> shardIds = idsByShard.get(shard);
+            return shardIds == null ? Collections.<User>emptyList() : findByIdsOnShard(shardIds);
+        });
+        List<User> users = new ArrayList<>(ids.size());
+        parts.forEach(users::addAll);
+        return users;
+    }
+
+    private List<User> findByIdsOnShard(List<Integer> ids) {
+        String sql = "select * from user where id in (" + placeholders(ids.size()) + ")";
+        return jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(User.class), ids.toArray());
+    }
+
+    /**
+     * 按用户名批量查询, 分片时先查用户名索引再按id查询
+     * @param userNames
+     * @return
+     */
+    public List<User> findByNames(List<String> userNames) {
+        if (userNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!isSharded()) {
+            String sql = "select * from user where user_name in (" + placeholders(userNames.size()) + ")";
+            return jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(User.class), userNames.toArray());
+        }
+        Map<Integer, List<String>> namesByShard = userNames.stream().distinct()
+                .collect(Collectors.groupingBy(ShardRouting::shardOf));
+        List<List<Integer>> parts = shardQueryExecutor.gather(shard -> {
+            List<String> names = namesByShard.get(shard);
+            if (names == null) {
+                return Collections.<Integer>emptyList();
+            }
+            String sql = "select user_id from user_name_lookup where user_name in (" + placeholders(names.size()) + ")";
+            return jdbcTemplate.queryForList(sql, Integer.class, names.toArray());
+        });
+        List<Integer> ids = new ArrayList<>();
+        parts.forEach(ids::addAll);
+        //索引可能残留自写入失败的用户, 以用户表为准
+        Set<String> names = userNames.stream().collect(Collectors.toSet());
+        return findByIds(ids).stream().filter(user -> names.contains(user.getUserName())).collect(Collectors.toList());
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDriverName().toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    private static String placeholders(int size) {
+        return String.join(",", Collections.nCopies(size, "?"));
     }
 
     /**
@@ -56,8 +299,7 @@ public class UserDao extends BaseDao {
      * @return
      */
     public User selectUserByName(String userName) {
-        String sql = "select * from user where user_name like ?";
-        return jdbcTemplate.query(sql, new ResultSetExtractor<User>() {
+        return selectOne("user_name_lookup", "user_name", userName, new ResultSetExtractor<User>() {
             @Override
             public User extractData(ResultSet rs) throws SQLException, DataAccessException {
                 User user = null;
@@ -70,12 +312,11 @@ public class UserDao extends BaseDao {
                 }
                 return user;
             }
-        }, userName);
+        });
     }
 
     public User selectUserByIDCard(String idCard) {
-        String sql = "select * from user where user_name like ?";
-        return jdbcTemplate.query(sql, new ResultSetExtractor<User>() {
+        return selectOne("user_id_card_lookup", "id_card", idCard, new ResultSetExtractor<User>() {
             @Override
             public User extractData(ResultSet rs) throws SQLException, DataAccessException {
                 User user = null;
@@ -84,12 +325,11 @@ public class UserDao extends BaseDao {
                 }
                 return user;
             }
-        }, idCard);
+        });
     }
 
     public User selectUserByphoneNumber(String phoneNumber) {
-        String sql = "select * from user where user_name like ?";
-        return jdbcTemplate.query(sql, new ResultSetExtractor<User>() {
+        return selectOne("user_phone_lookup", "phone_number", phoneNumber, new ResultSetExtractor<User>() {
             @Override
             public User extractData(ResultSet rs) throws SQLException, DataAccessException {
                 User user = null;
@@ -99,6 +339,34 @@ public class UserDao extends BaseDao {
                 }
                 return user;
             }
-        }, phoneNumber);
+        });
+    }
+
+    /**
+     * 按 column like value 查询单个用户
+     *
+     * 分片时不含通配符的值经索引表 lookupTable 定位到所在分片(索引按值精确匹配, 不随排序规则忽略大小写),
+     * 含通配符时在全部分片上查询, 取分片号最小的结果
+     */
+    private User selectOne(String lookupTable, String column, String value, ResultSetExtractor<User> extractor) {
+        String sql = "select * from user where " + column + " like ?";
+        if (!isSharded()) {
+            return jdbcTemplate.query(sql, extractor, value);
+        }
+        if (value.indexOf('%') >= 0 || value.indexOf('_') >= 0) {
+            return shardQueryExecutor.gather(shard -> jdbcTemplate.query(sql, extractor, value)).stream()
+                    .filter(user -> user != null).findFirst().orElse(null);
+        }
+        //同一值有多个用户时按id顺序取第一个存在的
+        List<Integer> ids = new ArrayList<>(findLookup(lookupTable, column, value));
+        Collections.sort(ids);
+        String byId = sql + " and id = ?";
+        for (Integer id : ids) {
+            User user = ShardRouting.call(shardOf(id), () -> jdbcTemplate.query(byId, extractor, value, id));
+            if (user != null) {
+                return user;
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,60 @@
+package com.springcloud.demo.dao;
+
+import com.springcloud.demo.entity.UserOutboxEvent;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @Description: 用户事件发件箱数据库操作类
+ */
+@Repository
+public class UserOutboxDao extends BaseDao {
+
+    /**
+     * 写入事件, 需与业务数据处于同一事务
+     * @param event
+     * @return
+     */
+    public Integer save(UserOutboxEvent event) {
+        String sql = "insert into user_outbox( user_id, event_type, payload, created_time, sent) values(?,?,?,?,0)";
+        return jdbcTemplate.update(sql, event.getUserId(), event.getEventType(), event.getPayload(), event.getCreatedTime());
+    }
+
+    /**
+     * 按id顺序查询未投递的事件
+     * @param limit 批大小
+     * @return
+     */
+    public List<UserOutboxEvent> findUnsent(int limit) {
+        String sql = "select id, user_id, event_type, payload, created_time from user_outbox where sent = 0 order by id limit ?";
+        return jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(UserOutboxEvent.class), limit);
+    }
+
+    /**
+     * 批量标记为已投递
+     * @param ids
+     * @return
+     */
+    public int[] markSent(List<Long> ids) {
+        String sql = "update user_outbox set sent = 1 where id = ?";
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{id});
+        }
+        return jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /**
+     * 清理早于指定时间的已投递事件
+     * @param before
+     * @return
+     */
+    public Integer deleteSentBefore(Date before) {
+        String sql = "delete from user_outbox where sent = 1 and created_time < ?";
+        return jdbcTemplate.update(sql, before);
+    }
+}
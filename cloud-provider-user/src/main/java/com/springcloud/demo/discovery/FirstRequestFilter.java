@@ -0,0 +1,36 @@
+package com.springcloud.demo.discovery;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.Resource;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 记录第一个业务请求(actuator 的健康检查等不算), 之后只剩一次原子读
+ */
+@Component
+public class FirstRequestFilter extends OncePerRequestFilter {
+
+    private static final String ACTUATOR = "/actuator";
+
+    @Resource
+    private StartupTimeline startupTimeline;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return startupTimeline.hasFirstRequest()
+                || request.getRequestURI().startsWith(ACTUATOR, request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        startupTimeline.firstRequest();
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,109 @@
+package com.springcloud.demo.discovery;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 就绪后再接流量: 实例以 eureka.instance.initial-status(STARTING)注册, 调用方的实例列表只取 UP 的实例;
+ * 应用启动完成且 user.discovery.readiness-components 中的健康检查(数据库、redis)都为 UP 后才标记为 UP。
+ *
+ * 标记 UP 会立即向注册中心重新注册, 不等下一次实例信息同步。
+ * 不检查整体健康: eureka 健康项反映的正是注册中心中的 STARTING 状态, 会互相等待。
+ * 未启用 eureka 客户端(如性能测试)时不做处理。
+ */
+@Component
+public class ReadinessRegistration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadinessRegistration.class);
+
+    @Resource
+    private ObjectProvider<ApplicationInfoManager> applicationInfoManagerProvider;
+
+    @Resource
+    private ObjectProvider<HealthEndpoint> healthEndpointProvider;
+
+    @Resource
+    private StartupTimeline startupTimeline;
+
+    @Value("${user.discovery.readiness-components:db,redis}")
+    private List<String> components;
+
+    @Value("${user.discovery.readiness-interval:1000}")
+    private long interval;
+
+    private ScheduledExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        ApplicationInfoManager applicationInfoManager = applicationInfoManagerProvider.getIfAvailable();
+        if (applicationInfoManager == null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "readiness-registration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                String down = firstNotUp();
+                if (down == null) {
+                    applicationInfoManager.setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+                    startupTimeline.ready();
+                    executor.shutdown();
+                } else {
+                    LOGGER.warn("health of {} is not UP, retry marking instance UP in {} ms", down, interval);
+                    executor.schedule(this, interval, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * 第一个未就绪的健康项, 都就绪时返回 null; 不存在的健康项(如未配置 redis)忽略
+     */
+    private String firstNotUp() {
+        HealthEndpoint healthEndpoint = healthEndpointProvider.getIfAvailable();
+        if (healthEndpoint == null) {
+            return null;
+        }
+        for (String component : components) {
+            HealthComponent health;
+            try {
+                health = healthEndpoint.healthForPath(component);
+            } catch (RuntimeException e) {
+                LOGGER.warn("check health of " + component + " error", e);
+                return component;
+            }
+            if (health != null && !Status.UP.equals(health.getStatus())) {
+                return component;
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
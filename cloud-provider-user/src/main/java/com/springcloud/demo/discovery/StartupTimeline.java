@@ -0,0 +1,69 @@
+package com.springcloud.demo.discovery;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实例从启动到接到第一个请求的时间线, 用于衡量新实例多久能被调用方发现
+ *
+ * discovery.startup.ready                  JVM 启动到在注册中心标记为 UP 的秒数
+ * discovery.startup.first.request          JVM 启动到收到第一个业务请求的秒数
+ * discovery.startup.ready.to.first.request 标记为 UP 到收到第一个业务请求的秒数(注册表、客户端缓存与负载均衡列表的传播时间)
+ *
+ * 尚未发生时为 NaN; 第一个请求由 FirstRequestFilter 记录。
+ */
+@Component
+public class StartupTimeline implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupTimeline.class);
+
+    private final long startedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicLong readyAt = new AtomicLong();
+    private final AtomicLong firstRequestAt = new AtomicLong();
+
+    public void ready() {
+        if (readyAt.compareAndSet(0, System.currentTimeMillis())) {
+            LOGGER.info("instance marked UP {} ms after jvm start", readyAt.get() - startedAt);
+        }
+    }
+
+    public boolean hasFirstRequest() {
+        return firstRequestAt.get() != 0;
+    }
+
+    public void firstRequest() {
+        if (firstRequestAt.compareAndSet(0, System.currentTimeMillis())) {
+            long ready = readyAt.get();
+            LOGGER.info("first request {} ms after jvm start, {} ms after marked UP",
+                    firstRequestAt.get() - startedAt, ready == 0 ? "-" : String.valueOf(firstRequestAt.get() - ready));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("discovery.startup.ready", this, t -> seconds(t.startedAt, t.readyAt.get()))
+                .description("Seconds from jvm start until the instance was marked UP in the registry")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("discovery.startup.first.request", this, t -> seconds(t.startedAt, t.firstRequestAt.get()))
+                .description("Seconds from jvm start until the first application request")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("discovery.startup.ready.to.first.request", this,
+                t -> seconds(t.readyAt.get(), t.firstRequestAt.get()))
+                .description("Seconds from being marked UP until the first application request")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private static double seconds(long from, long to) {
+        return from == 0 || to == 0 ? Double.NaN : (to - from) / 1000.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.springcloud.demo.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * @Description: 用户变更事件(发件箱记录), 与用户数据在同一事务中写入, 由 UserOutboxRelay 投递到 ActiveMQ
+ */
+public class UserOutboxEvent implements Serializable {
+    private static final long serialVersionUID = 4236728193650871245L;
+
+    public static final String USER_CREATED = "USER_CREATED";
+
+    /**
+     * 事件id, 自增, 即投递顺序
+     */
+    private Long id;
+
+    /**
+     * 用户id
+     */
+    private Integer userId;
+
+    /**
+     * 事件类型
+     */
+    private String eventType;
+
+    /**
+     * 事件内容(JSON)
+     */
+    private String payload;
+
+    /**
+     * 创建时间
+     */
+    private Date createdTime;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Date getCreatedTime() {
+        return createdTime;
+    }
+
+    public void setCreatedTime(Date createdTime) {
+        this.createdTime = createdTime;
+    }
+}
@@ -3,6 +3,7 @@ package com.springcloud.demo.service;
 import com.springcloud.demo.entity.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -10,6 +11,12 @@ public interface UserService {
 
     List<User> findAll();
 
+    void forEach(Consumer<User> action);
+
+    List<User> findByIds(List<Integer> ids);
+
+    List<User> findByNames(List<String> userNames);
+
     User selectUserByName(String userName);
 
     User selectUserByIDCard(String idCard);
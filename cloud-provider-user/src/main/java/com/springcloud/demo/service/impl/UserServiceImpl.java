@@ -1,29 +1,105 @@
 package com.springcloud.demo.service.impl;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.demo.dao.UserOutboxDao;
+import com.springcloud.demo.datasource.ReadReplica;
+import com.springcloud.demo.datasource.ShardRouting;
 import com.springcloud.demo.entity.User;
+import com.springcloud.demo.entity.UserOutboxEvent;
+import com.springcloud.demo.filter.CacheVersions;
 import com.springcloud.demo.service.UserService;
 import com.springcloud.demo.dao.UserDao;
 import com.springcloud.demo.util.RedisStringUtil;
 import com.springcloud.demo.util.RedisUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 用户列表的缓存版本名称, 对应 filter.etag.resources
+     */
+    public static final String USER_VERSION = "user";
+
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private UserOutboxDao userOutboxDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 分片时先分配id并写入索引表, 再在用户所在分片上开启事务写入用户与发件箱
+     */
     @Override
     public void save(User user) {
-        userDao.save(user);
-        //删除缓存
-        RedisUtil.delete("all");
+        if (userDao.isSharded()) {
+            if (user.getId() == null) {
+                user.setId(userDao.nextId());
+            }
+            userDao.saveLookups(user);
+        }
+        ShardRouting.run(userDao.shardOf(user.getId()), () -> transactionTemplate.executeWithoutResult(status -> {
+            userDao.save(user);
+            //变更事件与用户数据同一事务写入发件箱
+            userOutboxDao.save(createdEvent(user));
+            //提交后删除缓存并更新版本号, 避免并发读在提交前把旧数据重新写回缓存或打上新版本
+            afterCommit(() -> {
+                RedisUtil.delete("all");
+                CacheVersions.bump(USER_VERSION);
+            });
+        }));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private UserOutboxEvent createdEvent(User user) {
+        Map<String, Object> payload = new HashMap<>(8);
+        payload.put("id", user.getId());
+        payload.put("userName", user.getUserName());
+        payload.put("phoneNumber", user.getPhoneNumber());
+        UserOutboxEvent event = new UserOutboxEvent();
+        event.setUserId(user.getId());
+        event.setEventType(UserOutboxEvent.USER_CREATED);
+        event.setCreatedTime(new Date());
+        try {
+            event.setPayload(OBJECT_MAPPER.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("serialize user event error!", e);
+        }
+        return event;
     }
 
+    /**
+     * 缓存未命中时读主库: 缓存刚在写入后被删除, 从库可能还没同步到这次写入, 读从库会把旧数据写进缓存并打上新版本
+     */
     @Override
     public List<User> findAll() {
         List<User> userList =null;
@@ -39,16 +115,37 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @ReadReplica
+    public void forEach(Consumer<User> action) {
+        userDao.forEach(action);
+    }
+
+    @Override
+    @ReadReplica
+    public List<User> findByIds(List<Integer> ids) {
+        return userDao.findByIds(ids);
+    }
+
+    @Override
+    @ReadReplica
+    public List<User> findByNames(List<String> userNames) {
+        return userDao.findByNames(userNames);
+    }
+
+    @Override
+    @ReadReplica
     public User selectUserByName(String userName) {
         return userDao.selectUserByName(userName);
     }
 
     @Override
+    @ReadReplica
     public User selectUserByIDCard(String idCard) {
         return userDao.selectUserByIDCard(idCard);
     }
 
     @Override
+    @ReadReplica
     public User selectUserByphoneNumber(String phoneNumber) {
         return userDao.selectUserByphoneNumber(phoneNumber);
     }
@@ -0,0 +1,109 @@
+package com.springcloud.demo.task;
+
+import com.springcloud.demo.dao.UserOutboxDao;
+import com.springcloud.demo.datasource.ShardRouting;
+import com.springcloud.demo.entity.UserOutboxEvent;
+import com.springcloud.demo.listener.JMSPublisher;
+import com.springcloud.demo.util.RedisLockUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 发件箱投递任务
+ *
+ * 按id顺序批量读取未投递事件并发送到 ActiveMQ, 发送成功后才标记已投递(至少一次)。
+ * 某条发送失败时本批次立即停止, 保证后面的事件不会越过它;
+ * 消息以 userId 作为消息组, 同一用户的事件由同一消费者按顺序处理。
+ * 多实例部署时通过 redis 锁保证同一时刻只有一个实例在投递; 每批投递前续期锁, 续期失败(锁已过期、可能已被
+ * 其他实例获取)时本轮立即停止, 因此单批投递的耗时须小于锁的存活时长。
+ * 分片时事件与用户在同一分片, 逐个分片投递, 同一用户的事件仍保持顺序。
+ */
+@Component
+public class UserOutboxRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserOutboxRelay.class);
+    private static final String LOCK_KEY = "user:outbox:relay";
+    private static final long LOCK_SECONDS = 10;
+
+    private final String lockValue = UUID.randomUUID().toString();
+
+    @Autowired
+    private UserOutboxDao userOutboxDao;
+
+    @Value("${user.outbox.destination:queue/user_event}")
+    private String destination;
+
+    @Value("${user.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${user.outbox.retention-hours:24}")
+    private int retentionHours;
+
+    @Scheduled(fixedDelayString = "${user.outbox.poll-interval:100}")
+    public void relay() {
+        if (!Boolean.TRUE.equals(RedisLockUtil.getLock(LOCK_KEY, lockValue, LOCK_SECONDS, TimeUnit.SECONDS))) {
+            return;
+        }
+        try {
+            for (int shard = 0; shard < ShardRouting.shardCount(); shard++) {
+                if (!ShardRouting.call(shard, this::relayShard)) {
+                    return;
+                }
+            }
+        } finally {
+            RedisLockUtil.releaseLock(LOCK_KEY, lockValue);
+        }
+    }
+
+    /**
+     * @return 锁续期失败时返回 false, 本轮停止
+     */
+    private boolean relayShard() {
+        List<UserOutboxEvent> events;
+        do {
+            if (!RedisLockUtil.renewLock(LOCK_KEY, lockValue, LOCK_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("outbox relay lock lost, stop this round");
+                return false;
+            }
+            events = userOutboxDao.findUnsent(batchSize);
+            List<Long> sent = new ArrayList<>(events.size());
+            for (UserOutboxEvent event : events) {
+                try {
+                    JMSPublisher.sendQueueObject(destination, event, String.valueOf(event.getUserId()));
+                } catch (RuntimeException e) {
+                    LOGGER.warn("relay user event " + event.getId() + " error, retry next round", e);
+                    break;
+                }
+                sent.add(event.getId());
+            }
+            if (!sent.isEmpty()) {
+                userOutboxDao.markSent(sent);
+            }
+            if (sent.size() < events.size()) {
+                return true;
+            }
+        } while (events.size() == batchSize);
+        return true;
+    }
+
+    /**
+     * 每小时清理过期的已投递事件
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void purge() {
+        Date before = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours));
+        for (int shard = 0; shard < ShardRouting.shardCount(); shard++) {
+            ShardRouting.run(shard, () -> userOutboxDao.deleteSentBefore(before));
+        }
+    }
+}
@@ -8,4 +8,51 @@ CREATE TABLE `user` (
   `id_card` char(18) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
   `phone_number` char(11) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+/*Table structure for table `user_outbox` */
+DROP TABLE IF EXISTS `user_outbox`;
+CREATE TABLE `user_outbox` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `user_id` int(8) NOT NULL,
+  `event_type` varchar(32) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `payload` varchar(1024) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `created_time` datetime NOT NULL,
+  `sent` tinyint(1) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  KEY `idx_sent_id` (`sent`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+/*分片后按用户名、手机号、身份证号查询用的索引表, 按索引值所在分片存放, 见 UserDao */
+/*Table structure for table `user_name_lookup` */
+DROP TABLE IF EXISTS `user_name_lookup`;
+CREATE TABLE `user_name_lookup` (
+  `user_name` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `user_id` int(8) NOT NULL,
+  PRIMARY KEY (`user_name`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+/*Table structure for table `user_phone_lookup` */
+DROP TABLE IF EXISTS `user_phone_lookup`;
+CREATE TABLE `user_phone_lookup` (
+  `phone_number` char(11) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `user_id` int(8) NOT NULL,
+  PRIMARY KEY (`phone_number`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+/*Table structure for table `user_id_card_lookup` */
+DROP TABLE IF EXISTS `user_id_card_lookup`;
+CREATE TABLE `user_id_card_lookup` (
+  `id_card` char(18) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `user_id` int(8) NOT NULL,
+  PRIMARY KEY (`id_card`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+/*分片后的全局id号段, 只建在 0 号分片, 见 SegmentIdGenerator */
+/*Table structure for table `id_segment` */
+DROP TABLE IF EXISTS `id_segment`;
+CREATE TABLE `id_segment` (
+  `name` varchar(32) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `next_id` bigint(20) NOT NULL,
+  PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,92 @@
+package com.springcloud.demo.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 固定次数、固定并发地执行一个场景并统计耗时
+ *
+ * 第 i 次操作的参数只由 i 决定(与哪个线程执行无关), 同样的配置每次运行发出的请求相同。
+ * 预热使用序号 [0, warmup), 正式执行使用 [warmup, warmup + ops)。
+ */
+class LoadRunner {
+
+    interface Operation {
+
+        /**
+         * 执行第 index 次操作, 返回 false 表示结果不符合预期, 计为错误
+         */
+        boolean execute(int index) throws Exception;
+    }
+
+    private LoadRunner() {
+    }
+
+    static ScenarioResult run(String name, int warmup, int ops, int concurrency, Operation operation)
+            throws InterruptedException {
+        execute(0, warmup, concurrency, operation, null);
+        long[] latencies = new long[ops];
+        long start = System.nanoTime();
+        int errors = execute(warmup, ops, concurrency, operation, latencies);
+        long elapsed = System.nanoTime() - start;
+        return ScenarioResult.of(name, concurrency, errors, elapsed, latencies);
+    }
+
+    private static int execute(int from, int count, int concurrency, Operation operation, long[] latencies)
+            throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<Exception> firstError = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>(concurrency);
+        for (int t = 0; t < concurrency; t++) {
+            Thread thread = new Thread(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < count) {
+                    long begin = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = operation.execute(from + i);
+                    } catch (Exception e) {
+                        firstError.compareAndSet(null, e);
+                        ok = false;
+                    }
+                    if (latencies != null) {
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    if (!ok) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }, "perf-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (firstError.get() != null) {
+            System.err.println("first error: " + firstError.get());
+        }
+        return errors.get();
+    }
+
+    /**
+     * 由种子与序号得到 [0, bound) 内的伪随机数(SplitMix64)
+     */
+    static int random(long seed, int index, int bound) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) Math.floorMod(z, (long) bound);
+    }
+
+    static long[] sorted(long[] values) {
+        long[] copy = Arrays.copyOf(values, values.length);
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,99 @@
+package com.springcloud.demo.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 性能测试报告
+ *
+ * user-perf.json 中字段顺序固定且不含时间戳, 不同构建的报告可以直接 diff;
+ * 配置了基线报告时逐个场景对比吞吐与 p99, 超出容差的记为回退。
+ */
+class PerfReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Object> environment = new LinkedHashMap<>();
+    private final List<ScenarioResult> results = new ArrayList<>();
+
+    PerfReport(PerfSettings settings) {
+        environment.put("rows", settings.getRows());
+        environment.put("seed", settings.getSeed());
+        environment.put("java", System.getProperty("java.version"));
+        environment.put("processors", Runtime.getRuntime().availableProcessors());
+    }
+
+    void add(ScenarioResult result) {
+        results.add(result);
+    }
+
+    void write(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        for (ScenarioResult result : results) {
+            scenarios.put(result.getName(), result.getValues());
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("environment", environment);
+        report.put("scenarios", scenarios);
+        OBJECT_MAPPER.writeValue(new File(dir, "user-perf.json"), report);
+        try (PrintStream out = new PrintStream(new File(dir, "user-perf.txt"), StandardCharsets.UTF_8.name())) {
+            print(out);
+        }
+    }
+
+    void print(PrintStream out) {
+        out.println(String.format("%-20s%8s%6s%8s%12s%10s%10s%10s%10s%10s",
+                "scenario", "ops", "conc", "errors", "ops/s", "mean", "p50", "p99", "p999", "max(ms)"));
+        for (ScenarioResult result : results) {
+            Map<String, Object> v = result.getValues();
+            out.println(String.format("%-20s%8s%6s%8s%12s%10s%10s%10s%10s%10s", result.getName(), v.get("ops"),
+                    v.get("concurrency"), v.get("errors"), v.get("throughput"), v.get("mean"), v.get("p50"),
+                    v.get("p99"), v.get("p999"), v.get("max")));
+        }
+    }
+
+    /**
+     * 与基线对比, 返回回退的场景说明, 没有回退时为空
+     */
+    @SuppressWarnings("unchecked")
+    List<String> compare(File baseline, double tolerance, PrintStream out) throws IOException {
+        Map<String, Object> report = OBJECT_MAPPER.readValue(
+                new String(Files.readAllBytes(baseline.toPath()), StandardCharsets.UTF_8), Map.class);
+        Map<String, Map<String, Number>> scenarios = (Map<String, Map<String, Number>>) report.get("scenarios");
+        List<String> regressions = new ArrayList<>();
+        out.println("compare with " + baseline + " (tolerance " + tolerance + ")");
+        for (ScenarioResult result : results) {
+            Map<String, Number> base = scenarios.get(result.getName());
+            if (base == null) {
+                continue;
+            }
+            double throughput = change(base.get("throughput").doubleValue(), result.get("throughput"));
+            double p99 = change(base.get("p99").doubleValue(), result.get("p99"));
+            String line = String.format("%-20s throughput %+.1f%%  p99 %+.1f%%", result.getName(),
+                    throughput * 100, p99 * 100);
+            if (throughput < -tolerance || p99 > tolerance) {
+                line += "  REGRESSION";
+                regressions.add(line);
+            }
+            out.println(line);
+        }
+        return regressions;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before;
+    }
+}
@@ -0,0 +1,125 @@
+package com.springcloud.demo.perf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 性能测试配置, 对应 application-perf.yml 中的 perf
+ */
+public class PerfSettings {
+
+    private int rows = 1000000;
+    private int seedBatchSize = 5000;
+    private long seed = 42;
+    private int concurrency = 8;
+    private String reportDir = "target/perf";
+    private String baseline;
+    private double tolerance = 0.2;
+    private Map<String, Scenario> scenarios = new LinkedHashMap<>();
+
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    public int getSeedBatchSize() {
+        return seedBatchSize;
+    }
+
+    public void setSeedBatchSize(int seedBatchSize) {
+        this.seedBatchSize = seedBatchSize;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public String getReportDir() {
+        return reportDir;
+    }
+
+    public void setReportDir(String reportDir) {
+        this.reportDir = reportDir;
+    }
+
+    public String getBaseline() {
+        return baseline;
+    }
+
+    public void setBaseline(String baseline) {
+        this.baseline = baseline;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public Map<String, Scenario> getScenarios() {
+        return scenarios;
+    }
+
+    public void setScenarios(Map<String, Scenario> scenarios) {
+        this.scenarios = scenarios;
+    }
+
+    /**
+     * 场景配置, 未配置的场景不执行
+     */
+    public static class Scenario {
+
+        /**
+         * 预热次数, 不计入结果
+         */
+        private int warmup;
+
+        private int ops = 1000;
+
+        /**
+         * 并发数, 未配置时取 perf.concurrency
+         */
+        private Integer concurrency;
+
+        public int getWarmup() {
+            return warmup;
+        }
+
+        public void setWarmup(int warmup) {
+            this.warmup = warmup;
+        }
+
+        public int getOps() {
+            return ops;
+        }
+
+        public void setOps(int ops) {
+            this.ops = ops;
+        }
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.springcloud.demo.perf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个场景的结果, 耗时单位为毫秒
+ */
+class ScenarioResult {
+
+    private final String name;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    private ScenarioResult(String name) {
+        this.name = name;
+    }
+
+    static ScenarioResult of(String name, int concurrency, int errors, long elapsedNanos, long[] latencies) {
+        long[] sorted = LoadRunner.sorted(latencies);
+        long total = 0;
+        for (long latency : sorted) {
+            total += latency;
+        }
+        ScenarioResult result = new ScenarioResult(name);
+        result.values.put("ops", sorted.length);
+        result.values.put("concurrency", concurrency);
+        result.values.put("errors", errors);
+        result.values.put("throughput", round(sorted.length / (elapsedNanos / 1e9)));
+        result.values.put("mean", millis(sorted.length == 0 ? 0 : total / sorted.length));
+        result.values.put("p50", millis(percentile(sorted, 0.5)));
+        result.values.put("p90", millis(percentile(sorted, 0.9)));
+        result.values.put("p99", millis(percentile(sorted, 0.99)));
+        result.values.put("p999", millis(percentile(sorted, 0.999)));
+        result.values.put("max", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Map<String, Object> getValues() {
+        return values;
+    }
+
+    double get(String key) {
+        return ((Number) values.get(key)).doubleValue();
+    }
+}
@@ -0,0 +1,243 @@
+package com.springcloud.demo.perf;
+
+import com.springcloud.demo.UserProviderApplication;
+import com.springcloud.demo.entity.User;
+import com.springcloud.demo.util.RedisUtil;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+import redis.embedded.RedisServer;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * cloud-provider-user 性能测试
+ *
+ * 在内存 H2(MySQL 模式)与嵌入式 redis 上启动服务, 按 sql/user.sql 建表并预置 perf.rows 个用户,
+ * 再通过 HTTP 依次压测 findAll(未命中/命中缓存)、登录、保存、注册, 报告写入 perf.report-dir。
+ * 运行: 先 mvn install -DskipTests -Dspring-boot.repackage.skip=true 安装其它模块, 再 mvn -Pperf -pl cloud-provider-user compile exec:java
+ * 参数可用 -Dexec.args="--perf.rows=100000 --perf.baseline=..." 覆盖; 预置百万用户时 findAll 需要较大的堆(MAVEN_OPTS=-Xmx4g)。
+ */
+public class UserPerfHarness {
+
+    private static final String INSERT_USER =
+            "insert into user(user_name, pass_word, id_card, phone_number) values(?,?,?,?)";
+
+    public static void main(String[] args) throws Exception {
+        //HttpURLConnection 默认每个地址只保持 5 个空闲连接, 并发高于此数时会反复建连
+        System.setProperty("http.maxConnections", "256");
+        int redisPort = freePort();
+        RedisServer redis = RedisServer.builder().port(redisPort).setting("bind 127.0.0.1").setting("save \"\"").build();
+        redis.start();
+        ConfigurableApplicationContext context = null;
+        int exitCode = 1;
+        try {
+            SpringApplication application = new SpringApplication(UserProviderApplication.class);
+            application.setAdditionalProfiles("perf");
+            //数据源创建后立即建表, 早于发件箱等定时任务启动
+            application.addInitializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource) {
+                        createSchema((DataSource) bean);
+                    }
+                    return bean;
+                }
+            }));
+            List<String> arguments = new ArrayList<>(Arrays.asList(args));
+            arguments.add("--spring.redis.port=" + redisPort);
+            context = application.run(arguments.toArray(new String[0]));
+            exitCode = run(context);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            redis.stop();
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(ConfigurableApplicationContext context) throws Exception {
+        PerfSettings settings = Binder.get(context.getEnvironment()).bind("perf", PerfSettings.class)
+                .orElseGet(PerfSettings::new);
+        DataSource dataSource = context.getBean(DataSource.class);
+        long begin = System.nanoTime();
+        seed(new JdbcTemplate(dataSource), settings);
+        System.out.println("seeded " + settings.getRows() + " users in " + (System.nanoTime() - begin) / 1000000 + " ms");
+
+        String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/user";
+        File reportDir = new File(settings.getReportDir());
+        if (!reportDir.isDirectory() && !reportDir.mkdirs()) {
+            throw new IOException("cannot create " + reportDir);
+        }
+        PerfReport report = new PerfReport(settings);
+        //接口中的 System.out 输出较多, 压测期间转到文件
+        PrintStream console = System.out;
+        try (PrintStream log = new PrintStream(new FileOutputStream(new File(reportDir, "stdout.log")), false, "UTF-8")) {
+            System.setOut(log);
+            runScenarios(new Scenarios(baseUrl, settings), settings, report, console);
+        } finally {
+            System.setOut(console);
+        }
+
+        report.write(reportDir);
+        report.print(System.out);
+        System.out.println("report written to " + new File(reportDir, "user-perf.json").getAbsolutePath());
+        if (settings.getBaseline() == null || settings.getBaseline().isEmpty()) {
+            return 0;
+        }
+        List<String> regressions = report.compare(new File(settings.getBaseline()), settings.getTolerance(), System.out);
+        return regressions.isEmpty() ? 0 : 1;
+    }
+
+    private static void runScenarios(Scenarios scenarios, PerfSettings settings, PerfReport report, PrintStream console)
+            throws InterruptedException {
+        //顺序固定: 保存与注册会清除 findAll 的缓存, 放在最后
+        run("find-all-uncached", scenarios::findAllUncached, settings, report, console);
+        run("find-all-cached", scenarios::findAllCached, settings, report, console);
+        run("login", scenarios::login, settings, report, console);
+        run("save", scenarios::save, settings, report, console);
+        run("register", scenarios::register, settings, report, console);
+    }
+
+    private static void run(String name, LoadRunner.Operation operation, PerfSettings settings, PerfReport report,
+                            PrintStream console) throws InterruptedException {
+        PerfSettings.Scenario scenario = settings.getScenarios().get(name);
+        if (scenario == null) {
+            return;
+        }
+        int concurrency = scenario.getConcurrency() != null ? scenario.getConcurrency() : settings.getConcurrency();
+        console.println("running " + name + " ...");
+        report.add(LoadRunner.run(name, scenario.getWarmup(), scenario.getOps(), concurrency, operation));
+    }
+
+    /**
+     * 执行 sql/user.sql, 去掉 H2 不支持的 USE、字段排序规则与表选项
+     */
+    private static void createSchema(DataSource dataSource) {
+        String script;
+        try (InputStream in = new ClassPathResource("sql/user.sql").getInputStream()) {
+            script = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        script = script.replaceAll("(?m)^USE .*;$", "")
+                .replaceAll(" COLLATE[ =]\\w+", "")
+                .replaceAll("\\) ENGINE=[^;]*;", ");");
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            ScriptUtils.executeSqlScript(connection, new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * 预置用户 1..rows: 用户名 user{i}, 密码 pw{i}
+     */
+    private static void seed(JdbcTemplate jdbcTemplate, PerfSettings settings) {
+        int batchSize = settings.getSeedBatchSize();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= settings.getRows(); i++) {
+            batch.add(new Object[]{"user" + i, "pw" + i, String.format("%018d", i), String.format("1%010d", i)});
+            if (batch.size() == batchSize || i == settings.getRows()) {
+                jdbcTemplate.batchUpdate(INSERT_USER, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * 各场景的单次操作
+     */
+    private static class Scenarios {
+
+        private final RestTemplate restTemplate = new RestTemplate();
+        private final String baseUrl;
+        private final long seed;
+        private final int rows;
+
+        Scenarios(String baseUrl, PerfSettings settings) {
+            this.baseUrl = baseUrl;
+            this.seed = settings.getSeed();
+            this.rows = settings.getRows();
+        }
+
+        /**
+         * 每次先删除缓存, 耗时包含一次 redis 删除
+         */
+        boolean findAllUncached(int index) {
+            RedisUtil.delete("all");
+            return findAllCached(index);
+        }
+
+        /**
+         * 响应体只读取不解析, 避免客户端反序列化计入耗时
+         */
+        boolean findAllCached(int index) {
+            Long length = restTemplate.execute(baseUrl + "/find", HttpMethod.GET, null,
+                    response -> StreamUtils.drain(response.getBody()) > 0 ? 1L : 0L);
+            return length != null && length > 0;
+        }
+
+        boolean login(int index) {
+            int user = LoadRunner.random(seed, index, rows) + 1;
+            MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+            form.add("userName", "user" + user);
+            form.add("passWord", "pw" + user);
+            Map<?, ?> result = restTemplate.postForObject(baseUrl + "/login", form, Map.class);
+            return result != null && "success".equals(result.get("code"));
+        }
+
+        boolean save(int index) {
+            User user = new User();
+            user.setUserName("s" + index);
+            user.setPassWord("pw" + index);
+            user.setIDCard(String.format("S%017d", index));
+            user.setPhoneNumber(String.format("3%010d", index));
+            restTemplate.postForLocation(baseUrl + "/save", user);
+            return true;
+        }
+
+        boolean register(int index) {
+            MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+            form.add("IDCard", String.format("R%017d", index));
+            form.add("phoneNumber", String.format("2%010d", index));
+            form.add("userName", "r" + index);
+            form.add("passWord", "pw" + index);
+            Map<?, ?> result = restTemplate.postForObject(baseUrl + "/register", form, Map.class);
+            return result != null && result.containsKey("success");
+        }
+    }
+}
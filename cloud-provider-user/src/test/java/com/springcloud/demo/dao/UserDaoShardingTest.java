@@ -0,0 +1,203 @@
+package com.springcloud.demo.dao;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.springcloud.demo.datasource.ReadWriteRoutingDataSource;
+import com.springcloud.demo.datasource.ShardQueryExecutor;
+import com.springcloud.demo.datasource.ShardRouting;
+import com.springcloud.demo.datasource.ShardedDataSource;
+import com.springcloud.demo.entity.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 两个内存 H2 库(MySQL 模式)作为两个分片, 按 sql/user.sql 建表
+ */
+public class UserDaoShardingTest {
+
+    private static final int SHARDS = 2;
+
+    private static final String[][] LOOKUPS = {
+            {"user_name_lookup", "user_name"},
+            {"user_phone_lookup", "phone_number"},
+            {"user_id_card_lookup", "id_card"}};
+
+    private AnnotationConfigApplicationContext context;
+    private UserDao userDao;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ShardConfiguration.class, UserDao.class);
+        userDao = context.getBean(UserDao.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void usersAreRoutedByIdAndLookupsByValue() {
+        List<User> users = saveUsers(6);
+        assertEquals(Arrays.asList(2, 4, 6), ShardRouting.call(0, () ->
+                jdbcTemplate.queryForList("select id from user order by id", Integer.class)));
+        assertEquals(Arrays.asList(1, 3, 5), ShardRouting.call(1, () ->
+                jdbcTemplate.queryForList("select id from user order by id", Integer.class)));
+        for (User user : users) {
+            assertEquals(Collections.singletonList(user.getId()), lookupIds(ShardRouting.shardOf(user.getUserName()),
+                    "user_name_lookup", "user_name", user.getUserName()));
+            assertEquals(Collections.singletonList(user.getId()), lookupIds(ShardRouting.shardOf(user.getIDCard()),
+                    "user_id_card_lookup", "id_card", user.getIDCard()));
+        }
+    }
+
+    @Test
+    public void findAllMergesShardsInIdOrder() {
+        saveUsers(7);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7),
+                userDao.findAll().stream().map(User::getId).collect(Collectors.toList()));
+        List<Integer> visited = new ArrayList<>();
+        userDao.forEach(user -> visited.add(user.getId()));
+        Collections.sort(visited);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), visited);
+    }
+
+    @Test
+    public void lookupsFindUsersOnOtherShards() {
+        saveUsers(5);
+        assertEquals(Integer.valueOf(3), userDao.selectUserByName("user3").getId());
+        assertEquals(Integer.valueOf(4), userDao.selectUserByphoneNumber(phone(4)).getId());
+        assertTrue(userDao.selectUserByIDCard(idCard(5)) != null);
+        assertNull(userDao.selectUserByName("user9"));
+        assertEquals(Arrays.asList(2, 5), userDao.findByNames(Arrays.asList("user2", "user5", "user9")).stream()
+                .map(User::getId).sorted().collect(Collectors.toList()));
+        assertEquals(Arrays.asList(1, 4), userDao.findByIds(Arrays.asList(4, 1, 8)).stream()
+                .map(User::getId).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void deleteRemovesUserAndEveryLookup() {
+        List<User> users = saveUsers(4);
+        User deleted = users.get(2);
+        assertEquals(Integer.valueOf(1), userDao.delete(String.valueOf(deleted.getId())));
+        assertEquals(Arrays.asList(1, 2, 4), userDao.findAll().stream().map(User::getId).collect(Collectors.toList()));
+        for (String[] lookup : LOOKUPS) {
+            for (int shard = 0; shard < SHARDS; shard++) {
+                String sql = "select count(*) from " + lookup[0] + " where user_id = ?";
+                assertEquals(lookup[0], Integer.valueOf(0), ShardRouting.call(shard, () ->
+                        jdbcTemplate.queryForObject(sql, Integer.class, deleted.getId())));
+            }
+        }
+        assertNull(userDao.selectUserByIDCard(deleted.getIDCard()));
+        assertEquals(Integer.valueOf(0), userDao.delete(String.valueOf(deleted.getId())));
+    }
+
+    /**
+     * 与 UserServiceImpl.save 相同的写入顺序: 分配id, 写索引, 再写入用户所在分片
+     */
+    private List<User> saveUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = new User();
+            user.setId(userDao.nextId());
+            user.setUserName("user" + i);
+            user.setPassWord("pw" + i);
+            user.setIDCard(idCard(i));
+            user.setPhoneNumber(phone(i));
+            userDao.saveLookups(user);
+            ShardRouting.run(userDao.shardOf(user.getId()), () -> userDao.save(user));
+            users.add(user);
+        }
+        return users;
+    }
+
+    private List<Integer> lookupIds(int shard, String table, String column, String value) {
+        String sql = "select user_id from " + table + " where " + column + " = ?";
+        return ShardRouting.call(shard, () -> jdbcTemplate.queryForList(sql, Integer.class, value));
+    }
+
+    private static String idCard(int i) {
+        return String.format("%018d", i);
+    }
+
+    private static String phone(int i) {
+        return String.format("1%010d", i);
+    }
+
+    @Configuration
+    static class ShardConfiguration {
+
+        private static int databases;
+
+        @Bean(destroyMethod = "close")
+        public ShardedDataSource dataSource() throws SQLException {
+            //每个测试使用新的库, 号段表与用户表都从空表开始
+            int database = databases++;
+            List<ReadWriteRoutingDataSource> shards = new ArrayList<>(SHARDS);
+            for (int i = 0; i < SHARDS; i++) {
+                DruidDataSource primary = new DruidDataSource();
+                primary.setUrl("jdbc:h2:mem:user" + database + "_" + i
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+                primary.setUsername("sa");
+                primary.setTestWhileIdle(false);
+                primary.init();
+                createSchema(primary);
+                shards.add(new ReadWriteRoutingDataSource(primary, Collections.emptyList(), 0));
+            }
+            return new ShardedDataSource(shards);
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(ShardedDataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        public ShardQueryExecutor shardQueryExecutor() {
+            return new ShardQueryExecutor(SHARDS);
+        }
+
+        /**
+         * 执行 sql/user.sql, 去掉 H2 不支持的 USE、字段排序规则与表选项
+         */
+        private static void createSchema(DruidDataSource dataSource) throws SQLException {
+            String script;
+            try (InputStream in = new ClassPathResource("sql/user.sql").getInputStream()) {
+                script = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            script = script.replaceAll("(?m)^USE .*;$", "")
+                    .replaceAll(" COLLATE[ =]\\w+", "")
+                    .replaceAll("\\) ENGINE=[^;]*;", ");");
+            try (Connection connection = dataSource.getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.springcloud.demo.zookeeper;
+
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperDiscoveryClient;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperDiscoveryProperties;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperInstance;
+import org.springframework.cloud.zookeeper.discovery.dependency.ZookeeperDependencies;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * 从 ZookeeperDiscoveryCache 读取的 DiscoveryClient
+ *
+ * 原实现每次 getInstances 都对 zookeeper 执行 getChildren 与每个实例的 getData;
+ * 依赖别名(spring.cloud.zookeeper.dependencies)的解析与原实现一致, 缓存无法回答时回退到原实现。
+ */
+public class CachingZookeeperDiscoveryClient extends ZookeeperDiscoveryClient {
+
+    private final ZookeeperDependencies zookeeperDependencies;
+    private final ZookeeperDiscoveryCache cache;
+
+    public CachingZookeeperDiscoveryClient(ServiceDiscovery<ZookeeperInstance> serviceDiscovery,
+                                           ZookeeperDependencies zookeeperDependencies,
+                                           ZookeeperDiscoveryProperties zookeeperDiscoveryProperties,
+                                           ZookeeperDiscoveryCache cache) {
+        super(serviceDiscovery, zookeeperDependencies, zookeeperDiscoveryProperties);
+        this.zookeeperDependencies = zookeeperDependencies;
+        this.cache = cache;
+    }
+
+    @Override
+    public String description() {
+        return "Spring Cloud Zookeeper Discovery Client (watch-driven cache)";
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String serviceId) {
+        List<ServiceInstance> instances = cache.getInstances(serviceId, pathFor(serviceId));
+        return instances != null ? instances : super.getInstances(serviceId);
+    }
+
+    @Override
+    public List<String> getServices() {
+        List<String> services = cache.getServices();
+        return services != null ? services : super.getServices();
+    }
+
+    private String pathFor(String serviceId) {
+        if (zookeeperDependencies != null && zookeeperDependencies.hasDependencies()) {
+            String path = zookeeperDependencies.getPathForAlias(serviceId);
+            if (StringUtils.hasText(path)) {
+                return path;
+            }
+        }
+        return serviceId;
+    }
+}
@@ -0,0 +1,77 @@
+package com.springcloud.demo.zookeeper;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分布式协调配置, 对应 application.yml 中的 zookeeper.coordination
+ */
+@Component
+@ConfigurationProperties(prefix = "zookeeper.coordination")
+public class CoordinationProperties {
+
+    /**
+     * 锁、选主、计数器、屏障节点的根路径
+     */
+    private String root = "/coordination";
+
+    /**
+     * 启动时即参与选主的名称, 未列出的在第一次 isLeader 时才参与
+     */
+    private List<String> leaders = new ArrayList<>();
+
+    /**
+     * 计数器乐观更新冲突时的重试次数与间隔(毫秒)
+     */
+    private int counterRetries = 10;
+
+    private int counterRetryInterval = 10;
+
+    /**
+     * 乐观重试仍冲突时改为加锁更新, 等待锁的最长时间(毫秒)
+     */
+    private long counterLockTimeout = 5000;
+
+    public String getRoot() {
+        return root;
+    }
+
+    public void setRoot(String root) {
+        this.root = root;
+    }
+
+    public List<String> getLeaders() {
+        return leaders;
+    }
+
+    public void setLeaders(List<String> leaders) {
+        this.leaders = leaders;
+    }
+
+    public int getCounterRetries() {
+        return counterRetries;
+    }
+
+    public void setCounterRetries(int counterRetries) {
+        this.counterRetries = counterRetries;
+    }
+
+    public int getCounterRetryInterval() {
+        return counterRetryInterval;
+    }
+
+    public void setCounterRetryInterval(int counterRetryInterval) {
+        this.counterRetryInterval = counterRetryInterval;
+    }
+
+    public long getCounterLockTimeout() {
+        return counterLockTimeout;
+    }
+
+    public void setCounterLockTimeout(long counterLockTimeout) {
+        this.counterLockTimeout = counterLockTimeout;
+    }
+}
@@ -0,0 +1,32 @@
+package com.springcloud.demo.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.commons.util.InetUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+/**
+ * 分布式协调 bean, 复用 spring cloud zookeeper 创建的 CuratorFramework(spring.cloud.zookeeper.enabled 为 false 时没有)
+ */
+@Configuration
+@ConditionalOnProperty(value = "spring.cloud.zookeeper.enabled", matchIfMissing = true)
+public class ZookeeperCoordinationConfiguration {
+
+    @Value("${spring.application.name:application}")
+    private String applicationName;
+
+    /**
+     * 选主参与者标识: 应用名:主机:随机串, 同一主机上的多个实例可以区分
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ZookeeperCoordinator zookeeperCoordinator(CuratorFramework curator, CoordinationProperties properties,
+                                                     InetUtils inetUtils) {
+        String host = inetUtils.findFirstNonLoopbackHostInfo().getIpAddress();
+        String participantId = applicationName + ":" + host + ":" + UUID.randomUUID().toString().substring(0, 8);
+        return new ZookeeperCoordinator(curator, properties, participantId);
+    }
+}
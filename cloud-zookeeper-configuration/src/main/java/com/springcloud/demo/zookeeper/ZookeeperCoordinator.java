@@ -0,0 +1,219 @@
+package com.springcloud.demo.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.atomic.AtomicValue;
+import org.apache.curator.framework.recipes.atomic.DistributedAtomicLong;
+import org.apache.curator.framework.recipes.atomic.PromotedToLock;
+import org.apache.curator.framework.recipes.barriers.DistributedBarrier;
+import org.apache.curator.framework.recipes.barriers.DistributedDoubleBarrier;
+import org.apache.curator.framework.recipes.leader.LeaderLatch;
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.curator.utils.ZKPaths;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 zookeeper 的分布式协调(curator recipes): 锁、选主、计数器、屏障
+ *
+ * 用于多实例间协调批处理任务, 不占用 RedisLockUtil 所在的单机 redis。
+ * 节点都在 zookeeper.coordination.root 下, 按类型分目录:
+ *   locks/{name}           InterProcessMutex, 每个竞争者创建临时顺序节点, 序号最小者持有, 其余只监听前一个节点(无羊群效应);
+ *                          同一 JVM 内可重入, 会话断开时临时节点删除, 锁自动释放, 不需要设置过期时间
+ *   leaders/{name}         LeaderLatch, 同样按临时顺序节点排队; 与 zookeeper 断开(SUSPENDED)即放弃领导权
+ *   counters/{name}        DistributedAtomicLong, 按节点版本号乐观更新, 冲突时按 counter-retries 重试,
+ *                          仍冲突则改为持有 counter-locks/{name} 锁更新(并发高时乐观重试大多会失败)
+ *   barriers/{name}        DistributedBarrier, 一方设置, 其余等待直到移除
+ *   double-barriers/{name} DistributedDoubleBarrier, 凑齐 memberQty 个参与者后同时开始、全部离开后同时结束
+ *
+ * 使用方式(示例):
+ *     if (coordinator.isLeader("mail-batch")) {
+ *         // 只有领导者执行的定时任务
+ *     }
+ *     coordinator.callWithLock("material:import", 2, TimeUnit.SECONDS, () -> importMaterial());
+ */
+public class ZookeeperCoordinator implements Closeable {
+
+    private final CuratorFramework curator;
+    private final CoordinationProperties properties;
+    private final String participantId;
+    private final ConcurrentMap<String, InterProcessMutex> locks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LeaderLatch> leaderLatches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributedAtomicLong> counters = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    /**
+     * @param participantId 选主时标识本实例, 见 LeaderLatch#getLeader
+     */
+    public ZookeeperCoordinator(CuratorFramework curator, CoordinationProperties properties, String participantId) {
+        this.curator = curator;
+        this.properties = properties;
+        this.participantId = participantId;
+    }
+
+    /**
+     * 参与 zookeeper.coordination.leaders 中配置的选主
+     */
+    public void start() {
+        properties.getLeaders().forEach(this::leaderLatch);
+    }
+
+    // ------------------------------------------------------------------ 锁
+
+    /**
+     * 名称对应的锁, 同一名称在本实例内共用一个(可重入, 按线程持有)
+     */
+    public InterProcessMutex lock(String name) {
+        return locks.computeIfAbsent(name, n -> new InterProcessMutex(curator, path("locks", n)));
+    }
+
+    /**
+     * 获取锁, 最多等待 time; 获取成功后须在同一线程调用 unlock
+     */
+    public boolean tryLock(String name, long time, TimeUnit unit) {
+        try {
+            return lock(name).acquire(time, unit);
+        } catch (Exception e) {
+            throw new IllegalStateException("obtain zookeeper-lock[" + name + "] error", e);
+        }
+    }
+
+    public void unlock(String name) {
+        try {
+            lock(name).release();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("release zookeeper-lock[" + name + "] error", e);
+        }
+    }
+
+    /**
+     * 持有锁执行 action, 等待 time 仍未获取到锁时抛出 IllegalStateException
+     */
+    public <T> T callWithLock(String name, long time, TimeUnit unit, Callable<T> action) throws Exception {
+        if (!tryLock(name, time, unit)) {
+            throw new IllegalStateException("obtain zookeeper-lock[" + name + "] fail");
+        }
+        try {
+            return action.call();
+        } finally {
+            unlock(name);
+        }
+    }
+
+    // ------------------------------------------------------------------ 选主
+
+    /**
+     * 参与名称对应的选主并返回 LeaderLatch, 第一次调用时加入, 之后常驻直到关闭
+     */
+    public LeaderLatch leaderLatch(String name) {
+        LeaderLatch latch = leaderLatches.get(name);
+        if (latch != null) {
+            return latch;
+        }
+        synchronized (leaderLatches) {
+            latch = leaderLatches.get(name);
+            if (latch == null) {
+                if (closed) {
+                    throw new IllegalStateException("zookeeper coordinator closed");
+                }
+                latch = new LeaderLatch(curator, path("leaders", name), participantId);
+                try {
+                    latch.start();
+                } catch (Exception e) {
+                    throw new IllegalStateException("join leader election[" + name + "] error", e);
+                }
+                leaderLatches.put(name, latch);
+            }
+        }
+        return latch;
+    }
+
+    /**
+     * 本实例当前是否为领导者; 第一次调用时才加入选主, 选举完成前返回 false
+     */
+    public boolean isLeader(String name) {
+        return leaderLatch(name).hasLeadership();
+    }
+
+    // ------------------------------------------------------------------ 计数器
+
+    public DistributedAtomicLong counter(String name) {
+        return counters.computeIfAbsent(name, n -> {
+            RetryNTimes retryPolicy = new RetryNTimes(properties.getCounterRetries(), properties.getCounterRetryInterval());
+            PromotedToLock promotedToLock = PromotedToLock.builder()
+                    .lockPath(path("counter-locks", n))
+                    .retryPolicy(retryPolicy)
+                    .timeout(properties.getCounterLockTimeout(), TimeUnit.MILLISECONDS)
+                    .build();
+            return new DistributedAtomicLong(curator, path("counters", n), retryPolicy, promotedToLock);
+        });
+    }
+
+    public long get(String name) {
+        return value(name, "get", () -> counter(name).get());
+    }
+
+    public long increment(String name) {
+        return value(name, "increment", () -> counter(name).increment());
+    }
+
+    /**
+     * 加上 delta, 返回新值
+     */
+    public long add(String name, long delta) {
+        return value(name, "add", () -> counter(name).add(delta));
+    }
+
+    private long value(String name, String operation, Callable<AtomicValue<Long>> action) {
+        AtomicValue<Long> value;
+        try {
+            value = action.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(operation + " zookeeper-counter[" + name + "] error", e);
+        }
+        if (!value.succeeded()) {
+            throw new IllegalStateException(operation + " zookeeper-counter[" + name + "] fail");
+        }
+        return value.postValue();
+    }
+
+    // ------------------------------------------------------------------ 屏障
+
+    /**
+     * 单向屏障: setBarrier 设置, waitOnBarrier 等待, removeBarrier 放行
+     */
+    public DistributedBarrier barrier(String name) {
+        return new DistributedBarrier(curator, path("barriers", name));
+    }
+
+    /**
+     * 双向屏障: enter 等待凑齐 memberQty 个参与者, leave 等待所有参与者离开; 每个参与者各用一个实例
+     */
+    public DistributedDoubleBarrier doubleBarrier(String name, int memberQty) {
+        return new DistributedDoubleBarrier(curator, path("double-barriers", name), memberQty);
+    }
+
+    private String path(String type, String name) {
+        return ZKPaths.makePath(properties.getRoot(), type, name);
+    }
+
+    /**
+     * 退出所有选主(立即让出领导权); 未释放的锁随会话结束释放
+     */
+    @Override
+    public void close() {
+        synchronized (leaderLatches) {
+            closed = true;
+            leaderLatches.values().forEach(CloseableUtils::closeQuietly);
+            leaderLatches.clear();
+        }
+    }
+}
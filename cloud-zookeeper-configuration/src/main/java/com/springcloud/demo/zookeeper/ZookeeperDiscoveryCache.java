@@ -0,0 +1,176 @@
+package com.springcloud.demo.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.curator.x.discovery.ServiceCache;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.details.ServiceCacheListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperInstance;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperServiceInstance;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 服务实例的本地缓存, 由 zookeeper watch 驱动更新, 查询不访问 zookeeper
+ *
+ * 服务名: 对根路径(spring.cloud.zookeeper.discovery.root)的子节点建 PathChildrenCache, 只缓存节点名;
+ * 实例: 某个服务第一次被查询时建立 curator ServiceCache(子节点 watch + 新增/变化节点的数据), 之后常驻。
+ * 变更事件到达时重建该服务的不可变快照, 查询只有一次 map 查找与一次 volatile 读, 不加锁、不复制;
+ * zookeeper 的压力只与实例变更次数有关, 与查询频率无关。
+ *
+ * 查询不存在的服务返回空列表, 不为它建缓存(避免按任意名称创建节点与 watch);
+ * 服务名缓存尚未初始化、或某服务的缓存建立失败(zookeeper 不可用)时返回 null, 由调用方回退到直接查询。
+ */
+public class ZookeeperDiscoveryCache implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZookeeperDiscoveryCache.class);
+
+    private final ServiceDiscovery<ZookeeperInstance> serviceDiscovery;
+    private final PathChildrenCache namesCache;
+    private final ConcurrentMap<String, ServiceEntry> services = new ConcurrentHashMap<>();
+
+    private volatile List<String> names = Collections.emptyList();
+    private volatile Set<String> nameSet = Collections.emptySet();
+    private volatile boolean namesInitialized;
+    private volatile boolean closed;
+
+    public ZookeeperDiscoveryCache(CuratorFramework curator, ServiceDiscovery<ZookeeperInstance> serviceDiscovery,
+                                   String root) {
+        this.serviceDiscovery = serviceDiscovery;
+        this.namesCache = new PathChildrenCache(curator, root, false);
+    }
+
+    /**
+     * 异步加载服务名, 不因 zookeeper 暂不可用而阻塞启动
+     */
+    public void start() throws Exception {
+        namesCache.getListenable().addListener((client, event) -> {
+            if (event.getType() == PathChildrenCacheEvent.Type.INITIALIZED) {
+                namesInitialized = true;
+            }
+            refreshNames();
+        });
+        namesCache.start(PathChildrenCache.StartMode.POST_INITIALIZED_EVENT);
+    }
+
+    /**
+     * 所有服务名; 尚未初始化时返回 null
+     */
+    public List<String> getServices() {
+        return namesInitialized ? names : null;
+    }
+
+    /**
+     * 服务的实例列表(不可修改); 无法从缓存回答时返回 null
+     *
+     * @param serviceId 返回实例的 serviceId
+     * @param path      实例所在的路径(相对根路径), 一般与 serviceId 相同, 配置了依赖别名时为别名对应的路径
+     */
+    public List<ServiceInstance> getInstances(String serviceId, String path) {
+        ServiceEntry entry = services.get(serviceId);
+        if (entry != null) {
+            return entry.instances;
+        }
+        if (!namesInitialized) {
+            return null;
+        }
+        String node = path.startsWith("/") ? path.substring(1) : path;
+        if (node.indexOf('/') < 0 && !nameSet.contains(node)) {
+            return Collections.emptyList();
+        }
+        entry = open(serviceId, node);
+        return entry == null ? null : entry.instances;
+    }
+
+    private synchronized ServiceEntry open(String serviceId, String path) {
+        ServiceEntry entry = services.get(serviceId);
+        if (entry != null || closed) {
+            return entry;
+        }
+        ServiceCache<ZookeeperInstance> cache = serviceDiscovery.serviceCacheBuilder().name(path).build();
+        entry = new ServiceEntry(serviceId, cache);
+        cache.addListener(entry);
+        try {
+            cache.start();
+        } catch (Exception e) {
+            LOGGER.warn("open discovery cache of " + serviceId + " error, query zookeeper directly", e);
+            CloseableUtils.closeQuietly(cache);
+            return null;
+        }
+        entry.refresh();
+        services.put(serviceId, entry);
+        return entry;
+    }
+
+    private void refreshNames() {
+        List<ChildData> children = namesCache.getCurrentData();
+        List<String> current = new ArrayList<>(children.size());
+        for (ChildData child : children) {
+            current.add(ZKPaths.getNodeFromPath(child.getPath()));
+        }
+        nameSet = Collections.unmodifiableSet(new HashSet<>(current));
+        names = Collections.unmodifiableList(current);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        CloseableUtils.closeQuietly(namesCache);
+        for (ServiceEntry entry : services.values()) {
+            CloseableUtils.closeQuietly(entry.cache);
+        }
+        services.clear();
+    }
+
+    private static class ServiceEntry implements ServiceCacheListener {
+
+        private final String serviceId;
+        private final ServiceCache<ZookeeperInstance> cache;
+        private volatile List<ServiceInstance> instances = Collections.emptyList();
+
+        ServiceEntry(String serviceId, ServiceCache<ZookeeperInstance> cache) {
+            this.serviceId = serviceId;
+            this.cache = cache;
+        }
+
+        void refresh() {
+            List<org.apache.curator.x.discovery.ServiceInstance<ZookeeperInstance>> current = cache.getInstances();
+            List<ServiceInstance> snapshot = new ArrayList<>(current.size());
+            for (org.apache.curator.x.discovery.ServiceInstance<ZookeeperInstance> instance : current) {
+                snapshot.add(new ZookeeperServiceInstance(serviceId, instance));
+            }
+            instances = Collections.unmodifiableList(snapshot);
+            LOGGER.debug("discovery cache of {} refreshed, {} instances", serviceId, snapshot.size());
+        }
+
+        @Override
+        public void cacheChanged() {
+            refresh();
+        }
+
+        /**
+         * 断线期间保留最后的快照; 重连后 PathChildrenCache 会重新同步并触发 cacheChanged
+         */
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState) {
+            if (newState == ConnectionState.LOST) {
+                LOGGER.warn("zookeeper connection lost, serving last known instances of {}", serviceId);
+            }
+        }
+    }
+}
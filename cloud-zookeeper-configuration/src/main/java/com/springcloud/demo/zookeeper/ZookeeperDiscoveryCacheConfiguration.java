@@ -0,0 +1,40 @@
+package com.springcloud.demo.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.zookeeper.discovery.ConditionalOnZookeeperDiscoveryEnabled;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperDiscoveryClient;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperDiscoveryProperties;
+import org.springframework.cloud.zookeeper.discovery.ZookeeperInstance;
+import org.springframework.cloud.zookeeper.discovery.dependency.ZookeeperDependencies;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用带缓存的实现替换 spring cloud zookeeper 的 DiscoveryClient(其自动配置在缺少 ZookeeperDiscoveryClient 时才创建)
+ *
+ * zookeeper.discovery-cache.enabled 为 false 时不替换
+ */
+@Configuration
+@ConditionalOnZookeeperDiscoveryEnabled
+@ConditionalOnProperty(value = "zookeeper.discovery-cache.enabled", matchIfMissing = true)
+public class ZookeeperDiscoveryCacheConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ZookeeperDiscoveryCache zookeeperDiscoveryCache(CuratorFramework curator,
+                                                           ServiceDiscovery<ZookeeperInstance> serviceDiscovery,
+                                                           ZookeeperDiscoveryProperties properties) {
+        return new ZookeeperDiscoveryCache(curator, serviceDiscovery, properties.getRoot());
+    }
+
+    @Bean
+    public ZookeeperDiscoveryClient zookeeperDiscoveryClient(ServiceDiscovery<ZookeeperInstance> serviceDiscovery,
+                                                             ObjectProvider<ZookeeperDependencies> zookeeperDependencies,
+                                                             ZookeeperDiscoveryProperties properties,
+                                                             ZookeeperDiscoveryCache cache) {
+        return new CachingZookeeperDiscoveryClient(serviceDiscovery, zookeeperDependencies.getIfAvailable(),
+                properties, cache);
+    }
+}